@@ -1,5 +1,4 @@
-import controller.SocialMediaController;
-import io.javalin.Javalin;
+import app.ApplicationContext;
 
 /**
  * This class is provided with a main method to allow you to manually run and test your application.
@@ -7,8 +6,8 @@ import io.javalin.Javalin;
  */
 public class Main {
     public static void main(String[] args) {
-        SocialMediaController controller = new SocialMediaController();
-        Javalin app = controller.startAPI();
-        app.start(8080);
+        ApplicationContext context = new ApplicationContext();
+        Runtime.getRuntime().addShutdownHook(new Thread(context::stop));
+        context.start(8080);
     }
 }
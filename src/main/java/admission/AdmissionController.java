@@ -0,0 +1,188 @@
+package admission;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import metrics.PrometheusWriter;
+
+/**
+ * Admits requests while fewer than the {@link GradientLimit adaptive concurrency limit} are in flight, and answers
+ * the rest right away with 503 and {@code Retry-After} instead of letting them wait for a connection.
+ * <p>
+ * Endpoints are registered through {@link #guard(Priority, Handler)}, and {@link #release(Context)} is meant as an
+ * after handler; Javalin runs it once the request's future, if any, has completed. The time in between, which
+ * includes waiting for the JDBC executor and the connection pool, is the latency the limit follows. Each
+ * {@link Priority} may only use its share of the limit, so full scans are shed before cheap reads.
+ * <p>
+ * Settings: {@code http.admission.enabled} (default {@code true}), {@code http.admission.initialLimit} (default 64),
+ * {@code http.admission.minLimit} (default 8), {@code http.admission.maxLimit} (default 512),
+ * {@code http.admission.tolerance} (default 2.0) and {@code http.admission.retryAfterSeconds} (default 1).
+ */
+public class AdmissionController {
+
+    private static final String START_ATTRIBUTE = "admission.start";
+    private static final String REQUESTS_HELP = "Requests checked against the limit, by priority and result.";
+    private static final int PRIORITIES = Priority.values().length;
+
+    private final boolean enabled;
+    private final GradientLimit limit;
+    private final int retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder[] admitted = new LongAdder[PRIORITIES];
+    private final LongAdder[] rejected = new LongAdder[PRIORITIES];
+    private final LongAdder dropped = new LongAdder();
+
+    public AdmissionController(boolean enabled, GradientLimit limit, int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.limit = limit;
+        this.retryAfterSeconds = retryAfterSeconds;
+        for (int i = 0; i < PRIORITIES; i++) {
+            admitted[i] = new LongAdder();
+            rejected[i] = new LongAdder();
+        }
+    }
+
+    public static AdmissionController fromSystemProperties() {
+        return new AdmissionController(
+                Boolean.parseBoolean(System.getProperty("http.admission.enabled", "true")),
+                new GradientLimit(
+                        Integer.getInteger("http.admission.initialLimit", 64),
+                        Integer.getInteger("http.admission.minLimit", 8),
+                        Integer.getInteger("http.admission.maxLimit", 512),
+                        Double.parseDouble(System.getProperty("http.admission.tolerance", "2.0"))),
+                Integer.getInteger("http.admission.retryAfterSeconds", 1));
+    }
+
+    /**
+     * @return a handler that runs {@code handler} only if a request of the given priority is admitted.
+     */
+    public Handler guard(Priority priority, Handler handler) {
+        return guard(context -> priority, handler);
+    }
+
+    /**
+     * @param classifier decides the priority of each request, e.g. from whether it asks for a page.
+     * @return a handler that runs {@code handler} only if the request is admitted.
+     */
+    public Handler guard(Function<Context, Priority> classifier, Handler handler) {
+        if (!enabled) {
+            return handler;
+        }
+        return context -> {
+            if (!tryAcquire(classifier.apply(context))) {
+                context.status(503);
+                context.header("Retry-After", Integer.toString(retryAfterSeconds));
+                context.result("Service unavailable: server is busy");
+                return;
+            }
+            context.attribute(START_ATTRIBUTE, System.nanoTime());
+            handler.handle(context);
+        };
+    }
+
+    /**
+     * Frees the request's slot, if it was admitted. A 503 from an admitted request, e.g. from a full executor,
+     * counts as a drop.
+     */
+    public void release(Context context) {
+        Long start = context.attribute(START_ATTRIBUTE);
+        if (start != null) {
+            release(System.nanoTime() - start, context.statusCode() == 503);
+        }
+    }
+
+    /**
+     * Takes a slot if fewer requests than the priority's share of the limit are in flight. Every successful call
+     * must be followed by one {@link #release(long, boolean)}.
+     *
+     * @return {@code true} if the request is admitted.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority.allowedInFlight(limit.getLimit());
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                rejected[priority.ordinal()].increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted[priority.ordinal()].increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees a slot taken by {@link #tryAcquire(Priority)} and feeds the request's latency to the limit.
+     *
+     * @param overloaded {@code true} if the request failed because the server was overloaded.
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        int current = inFlight.getAndDecrement();
+        if (overloaded) {
+            dropped.increment();
+        }
+        limit.onSample(latencyNanos, current, overloaded);
+    }
+
+    /**
+     * Resets the limit and the counters, e.g. once warm-up requests are done. Slots in flight stay taken.
+     */
+    public void reset() {
+        limit.reset();
+        for (int i = 0; i < PRIORITIES; i++) {
+            admitted[i].reset();
+            rejected[i].reset();
+        }
+        dropped.reset();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAdmitted(Priority priority) {
+        return admitted[priority.ordinal()].sum();
+    }
+
+    public long getRejected(Priority priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+
+    /**
+     * @return admitted requests that still ended in 503.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public void writeTo(PrometheusWriter writer) {
+        writer.gauge("http_admission_limit", "Current adaptive concurrency limit.", limit.getLimit())
+                .gauge("http_admission_in_flight", "Admitted requests being handled.", inFlight.get())
+                .gauge("http_admission_latency_seconds", "Moving average latency of admitted requests, by window.",
+                        limit.getRecentNanos() / (double) TimeUnit.SECONDS.toNanos(1), "window", "recent")
+                .gauge("http_admission_latency_seconds", "Moving average latency of admitted requests, by window.",
+                        limit.getBaselineNanos() / (double) TimeUnit.SECONDS.toNanos(1), "window", "baseline");
+        for (Priority priority : Priority.values()) {
+            String name = priority.name().toLowerCase(Locale.ROOT);
+            writer.counter("http_admission_requests_total", REQUESTS_HELP, getAdmitted(priority),
+                            "priority", name, "result", "admitted")
+                    .counter("http_admission_requests_total", REQUESTS_HELP, getRejected(priority),
+                            "priority", name, "result", "rejected");
+        }
+        writer.counter("http_admission_dropped_total", "Admitted requests that still ended in 503.", dropped.sum());
+    }
+}
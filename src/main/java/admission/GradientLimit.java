@@ -0,0 +1,137 @@
+package admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrency limit that follows the latency of completed requests, after the gradient algorithm.
+ * <p>
+ * Two moving averages of the latency are kept: a recent one that reacts within a few requests, and a baseline that
+ * moves slowly. While the recent latency stays within {@code tolerance} times the baseline the limit grows by about
+ * its square root; once requests queue up, on the pool or the JDBC executor, the recent latency rises and the limit
+ * shrinks in proportion, by at most half per sample before smoothing. A request the server had to turn away anyway
+ * (a dropped request) cuts the limit by a tenth. The limit only grows while at least half of it is in use, so a
+ * quiet server does not build up a limit it never tested.
+ * <p>
+ * Samples are applied under a lock; {@link #getLimit()} reads without one.
+ */
+public class GradientLimit {
+
+    private static final double RECENT_WEIGHT = 0.2;
+    private static final double BASELINE_WEIGHT = 0.002;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile double limit;
+    private double recentNanos;
+    private double baselineNanos;
+
+    /**
+     * @param tolerance how many times the baseline latency the recent latency may reach before the limit shrinks.
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits: initial " + initialLimit
+                    + ", min " + minLimit + ", max " + maxLimit);
+        }
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("Invalid latency tolerance: " + tolerance);
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Updates the limit with the latency of a completed request.
+     *
+     * @param inFlight requests in flight when the request completed, itself included.
+     * @param dropped  {@code true} if the request failed because the server was overloaded.
+     */
+    public void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        lock.lock();
+        try {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * DROP_BACKOFF);
+                return;
+            }
+            if (recentNanos == 0) {
+                recentNanos = latencyNanos;
+                baselineNanos = latencyNanos;
+            }
+            recentNanos += (latencyNanos - recentNanos) * RECENT_WEIGHT;
+            baselineNanos += (latencyNanos - baselineNanos) * BASELINE_WEIGHT;
+            if (baselineNanos > 2 * recentNanos) {
+                // latency improved for good, e.g. once the JIT warmed up; let the baseline catch up
+                baselineNanos *= 0.95;
+            }
+            double gradient = Math.max(MIN_GRADIENT,
+                    Math.min(1.0, tolerance * baselineNanos / Math.max(1.0, recentNanos)));
+            double target = limit * gradient + Math.sqrt(limit);
+            if (target > limit && inFlight < limit / 2) {
+                return;
+            }
+            double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Goes back to the initial limit and forgets the latency seen so far, e.g. that of warm-up requests.
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            limit = initialLimit;
+            recentNanos = 0;
+            baselineNanos = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return the slowly moving average latency the recent latency is compared with, 0 before the first sample.
+     */
+    public long getBaselineNanos() {
+        lock.lock();
+        try {
+            return (long) baselineNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the quickly moving average latency, 0 before the first sample.
+     */
+    public long getRecentNanos() {
+        lock.lock();
+        try {
+            return (long) recentNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package admission;
+
+/**
+ * How much of the concurrency limit a request may use. A request is only admitted while fewer requests than its
+ * share of the limit are in flight, so once the service is busy the low priorities are turned away first and the
+ * remaining headroom is kept for cheap reads.
+ */
+public enum Priority {
+    /**
+     * Cheap reads by primary key or one bounded page, e.g. {@code GET /messages/{id}}; may use the whole limit.
+     */
+    HIGH(1.0),
+    /**
+     * Single writes, logins and reads of one account's messages.
+     */
+    NORMAL(0.75),
+    /**
+     * Full scans and bulk writes, e.g. {@code GET /messages} without a page limit.
+     */
+    LOW(0.5);
+
+    private final double share;
+
+    Priority(double share) {
+        this.share = share;
+    }
+
+    /**
+     * @return the number of requests that may be in flight when a request of this priority is admitted, at least 1.
+     */
+    public int allowedInFlight(int limit) {
+        return Math.max(1, (int) (limit * share));
+    }
+}
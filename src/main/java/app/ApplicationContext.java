@@ -0,0 +1,176 @@
+package app;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import controller.SocialMediaController;
+import dao.MessageDao;
+import dao.impl.AccountDaoImpl;
+import dao.impl.CachingMessageDao;
+import dao.impl.MessageDaoImpl;
+import io.javalin.Javalin;
+import model.Message;
+import security.PasswordHasher;
+import security.TokenStore;
+import service.AccountService;
+import service.MessageService;
+import util.ConnectionUtil;
+import validator.AccountValidator;
+import validator.MessageValidator;
+
+/**
+ * Creates the DAOs, services, validators and the controller once, and runs the application's lifecycle.
+ * <p>
+ * {@link #start(int)} migrates the schema, opens the pool's minimum connections, loads the account id set and
+ * username filter, and starts the server. It then sends {@code warmup.requests} rounds of read-only requests to the
+ * hot endpoints, which warms the statement caches, the JSON mapper and the JIT. The request metrics and the
+ * admission limit are then reset, so neither reflects the warm-up. Only after that does
+ * {@code GET /health/ready} answer 200. Set {@code warmup.requests} to 0 to skip the requests.
+ * <p>
+ * {@link #stop()} stops the server, then closes what the context opened in reverse order: the response compression,
+ * the JDBC executor and connection pool, and the password hasher.
+ */
+public class ApplicationContext implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicationContext.class);
+    private static final String READY_PATH = "/health/ready";
+
+    private final PasswordHasher passwordHasher;
+    private final AccountDaoImpl accountDao;
+    private final MessageDao messageDao;
+    private final AccountService accountService;
+    private final MessageService messageService;
+    private final TokenStore tokenStore;
+    private final SocialMediaController controller;
+    private final int warmUpRequests;
+
+    private Javalin app;
+    private volatile boolean ready;
+    private boolean stopped;
+
+    public ApplicationContext() {
+        passwordHasher = PasswordHasher.fromSystemProperties();
+        accountDao = new AccountDaoImpl();
+        messageDao = CachingMessageDao.wrapIfEnabled(new MessageDaoImpl());
+        accountService = new AccountService(accountDao, passwordHasher);
+        messageService = new MessageService(messageDao, accountDao);
+        tokenStore = TokenStore.fromSystemProperties();
+        controller = new SocialMediaController(accountService, messageService, tokenStore,
+                new AccountValidator(), new MessageValidator(accountService));
+        warmUpRequests = Integer.getInteger("warmup.requests", 20);
+    }
+
+    /**
+     * Starts the server on the port, and returns once it is warmed up and reports ready.
+     */
+    public Javalin start(int port) {
+        long started = System.nanoTime();
+        ConnectionUtil.migrateDatabase();
+        ConnectionUtil.warmUpPool();
+        accountService.preloadAccounts();
+
+        app = controller.startAPI();
+        app.get(READY_PATH, context -> context.status(ready ? 200 : 503));
+        app.start(port);
+
+        warmUp(app.port());
+        controller.getRequestMetrics().reset();
+        controller.getAdmissionController().reset();
+        ready = true;
+        LOGGER.info("Ready on port {} after {} ms", app.port(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+        return app;
+    }
+
+    /**
+     * Stops the server and closes the resources it used. Calling it again does nothing.
+     */
+    public synchronized void stop() {
+        ready = false;
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        if (app != null) {
+            app.stop();
+            app = null;
+        }
+        controller.getResponseCompression().close();
+        ConnectionUtil.shutdown();
+        passwordHasher.close();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
+    }
+
+    public AccountService getAccountService() {
+        return accountService;
+    }
+
+    public MessageService getMessageService() {
+        return messageService;
+    }
+
+    public TokenStore getTokenStore() {
+        return tokenStore;
+    }
+
+    public SocialMediaController getController() {
+        return controller;
+    }
+
+    /**
+     * Sends read-only requests that take the same code paths as real traffic, without writing anything.
+     * A failed warm-up request is logged and does not prevent startup.
+     */
+    private void warmUp(int port) {
+        if (warmUpRequests <= 0) {
+            return;
+        }
+        String base = "http://localhost:" + port;
+        Message newest = messageService.findMessagesPage(null, 1).getItems().stream().findFirst().orElse(null);
+        int messageId = newest != null ? newest.getMessage_id() : 0;
+        int accountId = newest != null ? newest.getPosted_by() : 0;
+        HttpRequest[] requests = {
+                HttpRequest.newBuilder(URI.create(base + "/messages?limit=" + MessageService.DEFAULT_PAGE_SIZE)).build(),
+                HttpRequest.newBuilder(URI.create(base + "/messages?limit=" + MessageService.DEFAULT_PAGE_SIZE
+                        + "&expand=author")).build(),
+                HttpRequest.newBuilder(URI.create(base + "/messages/" + messageId)).build(),
+                HttpRequest.newBuilder(URI.create(base + "/accounts/" + accountId + "/messages?limit="
+                        + MessageService.DEFAULT_PAGE_SIZE)).build(),
+                HttpRequest.newBuilder(URI.create(base + "/login"))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\": \"\\u0000warm-up\", \"password\": \"warm-up\"}"))
+                        .header("Content-Type", "application/json")
+                        .build()
+        };
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            for (int round = 0; round < warmUpRequests; round++) {
+                for (HttpRequest request : requests) {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Warm-up stopped early", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free Bloom filter over strings.
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a string that was added, so a negative answer
+ * proves absence without asking the database. Positive answers are wrong with roughly the configured probability
+ * while the number of added strings stays under the expected count. Strings cannot be removed.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private final LongAdder insertions = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder negatives = new LongAdder();
+
+    /**
+     * @param expectedInsertions     number of strings the filter is sized for.
+     * @param falsePositiveProbability target false positive rate at the expected number of insertions.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException(String.format("Invalid Bloom filter sizing: n=%d, p=%f",
+                    expectedInsertions, falsePositiveProbability));
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+    }
+
+    public void add(String value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+        insertions.increment();
+    }
+
+    public boolean mightContain(String value) {
+        queries.increment();
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getInsertions() {
+        return insertions.sum();
+    }
+
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    /**
+     * @return number of queries answered "definitely absent".
+     */
+    public long getNegatives() {
+        return negatives.sum();
+    }
+
+    /**
+     * @return the false positive probability expected at the current number of insertions.
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.sum() / bitCount), hashCount);
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units, finished with the MurmurHash3 64-bit mixer.
+     */
+    private static long hash(String value, long seed) {
+        long hash = seed ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
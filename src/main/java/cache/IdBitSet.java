@@ -0,0 +1,75 @@
+package cache;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Growable, thread-safe set of non-negative int ids stored as one bit per id.
+ * <p>
+ * Auto-increment ids are dense, so a million ids cost 125 KB and a lookup is a shift and a mask under a read lock,
+ * with no boxing or hashing.
+ */
+public class IdBitSet {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] words = new long[16];
+    private int size;
+
+    public boolean contains(int id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = id >>> 6;
+        lock.readLock().lock();
+        try {
+            return index < words.length && (words[index] & (1L << id)) != 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        int index = id >>> 6;
+        lock.writeLock().lock();
+        try {
+            if (index >= words.length) {
+                long[] grown = new long[Math.max(words.length * 2, index + 1)];
+                System.arraycopy(words, 0, grown, 0, words.length);
+                words = grown;
+            }
+            if ((words[index] & (1L << id)) == 0) {
+                words[index] |= 1L << id;
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        if (id < 0) {
+            return;
+        }
+        int index = id >>> 6;
+        lock.writeLock().lock();
+        try {
+            if (index < words.length && (words[index] & (1L << id)) != 0) {
+                words[index] &= ~(1L << id);
+                size--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
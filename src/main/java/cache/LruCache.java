@@ -0,0 +1,186 @@
+package cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Bounded, concurrent read-through cache with least-recently-used eviction and per-entry time to live.
+ * <p>
+ * Keys are spread over independently locked segments, each an access-ordered {@link LinkedHashMap}, so readers of
+ * different keys rarely contend. A loader returning {@code null} is cached as well (negative caching) with its own,
+ * usually shorter, time to live. Loads run outside the segment lock; a load that raced with an invalidation of the
+ * same segment is returned to its caller but not cached, so invalidations are never undone by a stale load.
+ */
+public class LruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxSize           maximum number of entries, positive and negative alike.
+     * @param ttlMillis         time to live of a loaded value; zero or less means no expiry.
+     * @param negativeTtlMillis time to live of a cached absence; zero or less disables negative caching.
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize, long ttlMillis, long negativeTtlMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(maxSize));
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, evictions);
+        }
+        this.ttlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : Long.MAX_VALUE;
+        this.negativeTtlNanos = negativeTtlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis) : 0;
+    }
+
+    /**
+     * @return the cached value for the key, or the value produced by the loader (possibly {@code null}) on a miss.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long generation;
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null) {
+                if (System.nanoTime() - entry.expiresAtNanos < 0) {
+                    hits.increment();
+                    return entry.value;
+                }
+                segment.map.remove(key);
+                expirations.increment();
+            }
+            generation = segment.generation;
+        } finally {
+            segment.lock.unlock();
+        }
+        misses.increment();
+        V value = loader.apply(key);
+        long ttl = value != null ? ttlNanos : negativeTtlNanos;
+        if (ttl > 0) {
+            segment.lock.lock();
+            try {
+                if (segment.generation == generation) {
+                    segment.map.put(key, new Entry<>(value, expiresAt(ttl)));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Caches a value that is known to be current, e.g. one just written to the database.
+     */
+    public void put(K key, V value) {
+        long ttl = value != null ? ttlNanos : negativeTtlNanos;
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.generation++;
+            if (ttl > 0) {
+                segment.map.put(key, new Entry<>(value, expiresAt(ttl)));
+            } else {
+                segment.map.remove(key);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.generation++;
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.generation++;
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static long expiresAt(long ttlNanos) {
+        long now = System.nanoTime();
+        return ttlNanos == Long.MAX_VALUE ? now + (Long.MAX_VALUE >> 1) : now + ttlNanos;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAtNanos;
+
+        private Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> map;
+        private long generation;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+    }
+}
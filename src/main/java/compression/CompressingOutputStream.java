@@ -0,0 +1,161 @@
+package compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Holds back the first {@code minSize} bytes of a response and only compresses it once more than that was written.
+ * Smaller bodies are sent unchanged when the stream is closed, so short responses never pay for compression.
+ * <p>
+ * The deflater is borrowed from a {@link DeflaterPool} when compression starts and given back on {@link #close()},
+ * which also writes the gzip trailer. The stream must be closed for the body to be complete. {@link #flush()} does not
+ * force a decision nor a deflate block, so it costs nothing in compression ratio.
+ */
+public class CompressingOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private final OutputStream target;
+    private final ContentEncoding encoding;
+    private final DeflaterPool deflaterPool;
+    private final Runnable onCompress;
+    private final CompressionMetrics metrics;
+
+    private byte[] pending;
+    private int pendingCount;
+
+    private Deflater deflater;
+    private byte[] output;
+    private CRC32 crc;
+
+    private final byte[] single = new byte[1];
+
+    private long bytesIn;
+    private long bytesOut;
+    private boolean closed;
+
+    /**
+     * @param minSize    largest body sent uncompressed.
+     * @param onCompress called once, before the first compressed byte, e.g. to set {@code Content-Encoding}.
+     */
+    public CompressingOutputStream(OutputStream target, ContentEncoding encoding, int minSize,
+                                   DeflaterPool deflaterPool, Runnable onCompress, CompressionMetrics metrics) {
+        this.target = target;
+        this.encoding = encoding;
+        this.deflaterPool = deflaterPool;
+        this.onCompress = onCompress;
+        this.metrics = metrics;
+        this.pending = new byte[Math.max(0, minSize)];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        bytesIn += length;
+        if (deflater == null) {
+            if (pendingCount + length <= pending.length) {
+                System.arraycopy(bytes, offset, pending, pendingCount, length);
+                pendingCount += length;
+                return;
+            }
+            startCompressing();
+        }
+        deflate(bytes, offset, length);
+    }
+
+    /**
+     * @return {@code true} once the body grew past the threshold and is being compressed.
+     */
+    public boolean isCompressing() {
+        return deflater != null;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (deflater == null) {
+                writeTarget(pending, 0, pendingCount);
+            } else {
+                finish();
+            }
+        } finally {
+            if (deflater != null) {
+                deflaterPool.release(deflater);
+            }
+            pending = null;
+            metrics.record(deflater != null, bytesIn, bytesOut);
+            target.close();
+        }
+    }
+
+    private void startCompressing() throws IOException {
+        onCompress.run();
+        deflater = deflaterPool.acquire();
+        output = new byte[OUTPUT_BUFFER_SIZE];
+        if (encoding == ContentEncoding.GZIP) {
+            crc = new CRC32();
+            writeTarget(GZIP_HEADER, 0, GZIP_HEADER.length);
+        }
+        deflate(pending, 0, pendingCount);
+        pendingCount = 0;
+    }
+
+    private void deflate(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        if (crc != null) {
+            crc.update(bytes, offset, length);
+        }
+        deflater.setInput(bytes, offset, length);
+        while (!deflater.needsInput()) {
+            writeTarget(output, 0, deflater.deflate(output, 0, output.length, Deflater.NO_FLUSH));
+        }
+    }
+
+    private void finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            writeTarget(output, 0, deflater.deflate(output, 0, output.length, Deflater.NO_FLUSH));
+        }
+        if (crc != null) {
+            writeIntLittleEndian(output, 0, (int) crc.getValue());
+            writeIntLittleEndian(output, 4, (int) bytesIn);
+            writeTarget(output, 0, 8);
+        }
+    }
+
+    private void writeTarget(byte[] bytes, int offset, int length) throws IOException {
+        if (length > 0) {
+            target.write(bytes, offset, length);
+            bytesOut += length;
+        }
+    }
+
+    private static void writeIntLittleEndian(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        buffer[offset + 2] = (byte) (value >>> 16);
+        buffer[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,57 @@
+package compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the responses that went through a {@link CompressingOutputStream}.
+ */
+public class CompressionMetrics {
+
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder uncompressedResponses = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+
+    void record(boolean compressed, long in, long out) {
+        if (compressed) {
+            compressedResponses.increment();
+        } else {
+            uncompressedResponses.increment();
+        }
+        bytesIn.add(in);
+        bytesOut.add(out);
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /**
+     * @return number of responses that stayed under the size threshold and were sent as is.
+     */
+    public long getUncompressedResponses() {
+        return uncompressedResponses.sum();
+    }
+
+    /**
+     * @return number of body bytes written by the handlers.
+     */
+    public long getBytesIn() {
+        return bytesIn.sum();
+    }
+
+    /**
+     * @return number of body bytes sent to the client.
+     */
+    public long getBytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * @return bytes sent per byte written, {@code 1} before any response was recorded.
+     */
+    public double getRatio() {
+        long in = bytesIn.sum();
+        return in == 0 ? 1 : (double) bytesOut.sum() / in;
+    }
+}
@@ -0,0 +1,85 @@
+package compression;
+
+/**
+ * Response encodings the server can produce, in order of preference.
+ */
+public enum ContentEncoding {
+
+    /**
+     * Deflate stream with the gzip header and CRC-32 trailer (RFC 1952).
+     */
+    GZIP("gzip"),
+
+    /**
+     * Deflate stream with the zlib header and Adler-32 trailer (RFC 1950), which is what HTTP calls "deflate".
+     */
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return the name used in {@code Accept-Encoding} and {@code Content-Encoding}.
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Picks the preferred encoding among those the client accepts with a non-zero quality. A wildcard accepts any
+     * encoding that is not listed explicitly.
+     *
+     * @param acceptEncoding value of the {@code Accept-Encoding} request header, may be {@code null}.
+     * @return the encoding to use, or {@code null} to answer uncompressed.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        double[] quality = new double[values().length];
+        double wildcard = 0;
+        boolean[] listed = new boolean[values().length];
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double q = parseQuality(parts);
+            if ("*".equals(name)) {
+                wildcard = q;
+                continue;
+            }
+            for (ContentEncoding encoding : values()) {
+                if (encoding.token.equalsIgnoreCase(name)) {
+                    quality[encoding.ordinal()] = q;
+                    listed[encoding.ordinal()] = true;
+                }
+            }
+        }
+        ContentEncoding best = null;
+        double bestQuality = 0;
+        for (ContentEncoding encoding : values()) {
+            double q = listed[encoding.ordinal()] ? quality[encoding.ordinal()] : wildcard;
+            if (q > bestQuality) {
+                best = encoding;
+                bestQuality = q;
+            }
+        }
+        return best;
+    }
+
+    private static double parseQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,79 @@
+package compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Keeps reset {@link Deflater} instances for reuse, so compressing a response does not allocate a new native zlib
+ * stream each time.
+ * <p>
+ * At most {@code maxIdle} deflaters are kept. When the pool is empty a new one is created, and a deflater returned to
+ * a full pool is ended right away, so bursts never block and idle native memory stays bounded.
+ */
+public class DeflaterPool implements AutoCloseable {
+
+    private final int level;
+    private final boolean nowrap;
+    private final BlockingQueue<Deflater> idle;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * @param level   compression level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+     * @param nowrap  {@code true} for raw deflate data, as the gzip format embeds it; {@code false} for zlib format.
+     * @param maxIdle maximum number of deflaters kept for reuse.
+     */
+    public DeflaterPool(int level, boolean nowrap, int maxIdle) {
+        if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION
+                || maxIdle < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid deflater pool settings: level=%d, maxIdle=%d", level, maxIdle));
+        }
+        this.level = level;
+        this.nowrap = nowrap;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    public Deflater acquire() {
+        Deflater deflater = idle.poll();
+        if (deflater != null) {
+            reused.increment();
+            return deflater;
+        }
+        created.increment();
+        return new Deflater(level, nowrap);
+    }
+
+    /**
+     * Resets the deflater and keeps it for the next {@link #acquire()}; it must not be used by the caller afterwards.
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getReused() {
+        return reused.sum();
+    }
+
+    public int getIdle() {
+        return idle.size();
+    }
+
+    @Override
+    public void close() {
+        Deflater deflater;
+        while ((deflater = idle.poll()) != null) {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package compression;
+
+import java.io.OutputStream;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+/**
+ * Negotiated gzip or deflate compression for large response bodies.
+ * <p>
+ * Handlers write their body to {@link #open(Context)} instead of the context's output stream. The encoding is chosen
+ * from {@code Accept-Encoding}, and compression only starts once the body is larger than the threshold, so it also
+ * applies to bodies streamed from a cursor whose size is not known up front. Deflaters are pooled per encoding.
+ * <p>
+ * Settings: {@code http.compression.enabled} (default {@code true}), {@code http.compression.minSize} in bytes
+ * (default 1024), {@code http.compression.level} (default 6) and {@code http.compression.poolSize} (default twice the
+ * number of processors).
+ */
+public class ResponseCompression implements AutoCloseable {
+
+    private final boolean enabled;
+    private final int minSize;
+    private final DeflaterPool gzipDeflaters;
+    private final DeflaterPool zlibDeflaters;
+    private final CompressionMetrics metrics = new CompressionMetrics();
+
+    public ResponseCompression(boolean enabled, int minSize, int level, int poolSize) {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Invalid compression threshold: " + minSize);
+        }
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.gzipDeflaters = new DeflaterPool(level, true, poolSize);
+        this.zlibDeflaters = new DeflaterPool(level, false, poolSize);
+    }
+
+    public static ResponseCompression fromSystemProperties() {
+        return new ResponseCompression(
+                Boolean.parseBoolean(System.getProperty("http.compression.enabled", "true")),
+                Integer.getInteger("http.compression.minSize", 1024),
+                Integer.getInteger("http.compression.level", 6),
+                Integer.getInteger("http.compression.poolSize", Runtime.getRuntime().availableProcessors() * 2));
+    }
+
+    /**
+     * Returns the stream the response body should be written to. It must be closed once the body is complete.
+     * The content type and status should be set before the first write.
+     */
+    public OutputStream open(Context context) {
+        context.header(Header.VARY, Header.ACCEPT_ENCODING);
+        ContentEncoding encoding = enabled ? ContentEncoding.negotiate(context.header(Header.ACCEPT_ENCODING)) : null;
+        if (encoding == null) {
+            return context.outputStream();
+        }
+        return new CompressingOutputStream(context.outputStream(), encoding, minSize,
+                encoding == ContentEncoding.GZIP ? gzipDeflaters : zlibDeflaters,
+                () -> context.header(Header.CONTENT_ENCODING, encoding.getToken()), metrics);
+    }
+
+    public CompressionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public DeflaterPool getGzipDeflaters() {
+        return gzipDeflaters;
+    }
+
+    public DeflaterPool getZlibDeflaters() {
+        return zlibDeflaters;
+    }
+
+    @Override
+    public void close() {
+        gzipDeflaters.close();
+        zlibDeflaters.close();
+    }
+}
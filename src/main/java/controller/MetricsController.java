@@ -0,0 +1,220 @@
+package controller;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import admission.AdmissionController;
+import cache.BloomFilter;
+import cache.CacheStats;
+import compression.CompressionMetrics;
+import compression.DeflaterPool;
+import compression.ResponseCompression;
+import io.javalin.http.Context;
+import metrics.PrometheusWriter;
+import metrics.RequestMetrics;
+import security.PasswordHasher;
+import service.AccountService;
+import service.MessageService;
+import util.BoundedExecutor;
+import util.ConnectionUtil;
+import util.pool.PoolStats;
+import util.pool.SqlStats;
+import util.pool.StatementMetrics;
+
+/**
+ * Serves {@code GET /metrics} in the Prometheus text format: per-route request metrics and admission control, then
+ * the connection pool, statements by SQL text, caches, username filter, executors, response compression and JVM.
+ * <p>
+ * Every scrape reads the live counters; nothing is aggregated in between.
+ */
+public class MetricsController {
+
+    private final RequestMetrics requestMetrics;
+    private final AdmissionController admissionController;
+    private final AccountService accountService;
+    private final MessageService messageService;
+    private final ResponseCompression responseCompression;
+
+    public MetricsController(RequestMetrics requestMetrics, AdmissionController admissionController,
+                             AccountService accountService, MessageService messageService,
+                             ResponseCompression responseCompression) {
+        this.requestMetrics = requestMetrics;
+        this.admissionController = admissionController;
+        this.accountService = accountService;
+        this.messageService = messageService;
+        this.responseCompression = responseCompression;
+    }
+
+    /**
+     * Metrics endpoint
+     *
+     * @param context manages information about HTTP request and response.
+     */
+    public void handle(Context context) {
+        context.contentType(PrometheusWriter.CONTENT_TYPE).result(render());
+    }
+
+    public String render() {
+        PrometheusWriter writer = new PrometheusWriter();
+        requestMetrics.writeTo(writer);
+        admissionController.writeTo(writer);
+        writePool(writer, ConnectionUtil.getPoolStats());
+        writeStatements(writer, ConnectionUtil.getStatementMetrics());
+        writeCaches(writer);
+        writeUsernameFilter(writer, accountService.getUsernameFilter());
+        writeExecutors(writer);
+        writeCompression(writer);
+        writeJvm(writer);
+        return writer.toString();
+    }
+
+    private static void writePool(PrometheusWriter writer, PoolStats pool) {
+        writer.gauge("db_pool_connections", "Pooled connections, by state.", pool.getActive(), "state", "active")
+                .gauge("db_pool_connections", "Pooled connections, by state.", pool.getIdle(), "state", "idle")
+                .gauge("db_pool_max_connections", "Maximum size of the pool.", pool.getMaxSize())
+                .gauge("db_pool_waiters", "Threads waiting for a connection.", pool.getWaiters())
+                .counter("db_pool_timeouts_total", "Connection requests that timed out.", pool.getTimeouts())
+                .counter("db_pool_leaks_total", "Connections held past the leak threshold.", pool.getLeaksDetected())
+                .counter("db_pool_connections_created_total", "Physical connections opened.",
+                        pool.getConnectionsCreated())
+                .counter("db_pool_connections_closed_total", "Physical connections closed.",
+                        pool.getConnectionsClosed())
+                .histogram("db_pool_acquire_seconds", "Time to obtain a connection from the pool.",
+                        pool.getAcquireTime())
+                .histogram("db_pool_connection_hold_seconds", "Time a connection is borrowed before it is returned.",
+                        pool.getHoldTime())
+                .counter("db_statement_cache_requests_total", "Prepared statement cache lookups, by result.",
+                        pool.getStatementCacheHits(), "result", "hit")
+                .counter("db_statement_cache_requests_total", "Prepared statement cache lookups, by result.",
+                        pool.getStatementCacheMisses(), "result", "miss")
+                .counter("db_statement_cache_evictions_total", "Prepared statements evicted from the cache.",
+                        pool.getStatementCacheEvictions());
+    }
+
+    private static void writeStatements(PrometheusWriter writer, StatementMetrics metrics) {
+        if (metrics == null) {
+            return;
+        }
+        for (SqlStats stats : metrics.getStatements()) {
+            writer.histogram("db_statement_duration_seconds", "Prepared statement execution time, by SQL text.",
+                    stats.getExecutionTime(), "sql", stats.getSql());
+        }
+        for (SqlStats stats : metrics.getStatements()) {
+            writer.counter("db_statement_rows_fetched_total", "Rows read from statement results, by SQL text.",
+                    stats.getRowsFetched(), "sql", stats.getSql());
+        }
+        for (SqlStats stats : metrics.getStatements()) {
+            writer.counter("db_statement_errors_total", "Executions that threw, by SQL text.", stats.getErrors(),
+                    "sql", stats.getSql());
+        }
+        for (SqlStats stats : metrics.getStatements()) {
+            writer.counter("db_statement_slow_total", "Executions over the slow statement threshold, by SQL text.",
+                    stats.getSlowExecutions(), "sql", stats.getSql());
+        }
+    }
+
+    private void writeCaches(PrometheusWriter writer) {
+        Map<String, CacheStats> caches = new LinkedHashMap<>();
+        if (messageService.getMessageCacheStats() != null) {
+            caches.put("messages", messageService.getMessageCacheStats());
+        }
+        caches.put("accounts", accountService.getAccountCacheStats());
+        caches.forEach((cache, stats) -> writer
+                .counter("cache_requests_total", "Cache lookups, by cache and result.", stats.getHits(),
+                        "cache", cache, "result", "hit")
+                .counter("cache_requests_total", "Cache lookups, by cache and result.", stats.getMisses(),
+                        "cache", cache, "result", "miss"));
+        caches.forEach((cache, stats) -> writer.counter("cache_evictions_total", "Entries removed from a full cache.",
+                stats.getEvictions(), "cache", cache));
+        caches.forEach((cache, stats) -> writer.counter("cache_expirations_total", "Entries removed once expired.",
+                stats.getExpirations(), "cache", cache));
+        caches.forEach((cache, stats) -> writer.gauge("cache_size", "Entries in the cache.", stats.getSize(),
+                "cache", cache));
+    }
+
+    private static void writeUsernameFilter(PrometheusWriter writer, BloomFilter filter) {
+        writer.counter("username_filter_insertions_total", "Usernames added to the Bloom filter.",
+                        filter.getInsertions())
+                .counter("username_filter_queries_total", "Username lookups checked against the Bloom filter.",
+                        filter.getQueries())
+                .counter("username_filter_negatives_total", "Lookups answered without a query.",
+                        filter.getNegatives())
+                .gauge("username_filter_false_positive_ratio", "Expected false positive probability.",
+                        filter.expectedFalsePositiveProbability());
+    }
+
+    private void writeExecutors(PrometheusWriter writer) {
+        BoundedExecutor jdbc = ConnectionUtil.getJdbcExecutor();
+        PasswordHasher hasher = accountService.getPasswordHasher();
+        writer.gauge("executor_active_threads", "Threads running a task.", jdbc.getActiveCount(),
+                        "executor", "jdbc")
+                .gauge("executor_active_threads", "Threads running a task.", hasher.getActiveCount(),
+                        "executor", "password_hashing")
+                .gauge("executor_max_threads", "Maximum number of threads.", jdbc.getMaxThreads(),
+                        "executor", "jdbc")
+                .gauge("executor_max_threads", "Maximum number of threads.", hasher.getMaxThreads(),
+                        "executor", "password_hashing")
+                .gauge("executor_queue_depth", "Tasks waiting for a thread.", jdbc.getQueueDepth(),
+                        "executor", "jdbc")
+                .gauge("executor_queue_depth", "Tasks waiting for a thread.", hasher.getQueueDepth(),
+                        "executor", "password_hashing")
+                .counter("executor_rejected_total", "Tasks turned away with a full queue.", jdbc.getRejected(),
+                        "executor", "jdbc")
+                .counter("executor_rejected_total", "Tasks turned away with a full queue.", hasher.getRejected(),
+                        "executor", "password_hashing");
+    }
+
+    private void writeCompression(PrometheusWriter writer) {
+        CompressionMetrics metrics = responseCompression.getMetrics();
+        DeflaterPool gzip = responseCompression.getGzipDeflaters();
+        DeflaterPool zlib = responseCompression.getZlibDeflaters();
+        writer.counter("http_compression_responses_total", "Compressible responses, by result.",
+                        metrics.getCompressedResponses(), "result", "compressed")
+                .counter("http_compression_responses_total", "Compressible responses, by result.",
+                        metrics.getUncompressedResponses(), "result", "below_threshold")
+                .counter("http_compression_bytes_in_total", "Body bytes written by the handlers.",
+                        metrics.getBytesIn())
+                .counter("http_compression_bytes_out_total", "Body bytes sent to clients.", metrics.getBytesOut())
+                .counter("http_compression_deflaters_created_total", "Deflaters created, by encoding.",
+                        gzip.getCreated(), "encoding", "gzip")
+                .counter("http_compression_deflaters_created_total", "Deflaters created, by encoding.",
+                        zlib.getCreated(), "encoding", "deflate")
+                .counter("http_compression_deflaters_reused_total", "Deflaters taken from the pool, by encoding.",
+                        gzip.getReused(), "encoding", "gzip")
+                .counter("http_compression_deflaters_reused_total", "Deflaters taken from the pool, by encoding.",
+                        zlib.getReused(), "encoding", "deflate");
+    }
+
+    private static void writeJvm(PrometheusWriter writer) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        MemoryUsage heap = memory.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memory.getNonHeapMemoryUsage();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        writer.gauge("jvm_memory_used_bytes", "Used memory, by area.", heap.getUsed(), "area", "heap")
+                .gauge("jvm_memory_used_bytes", "Used memory, by area.", nonHeap.getUsed(), "area", "nonheap")
+                .gauge("jvm_memory_committed_bytes", "Committed memory, by area.", heap.getCommitted(),
+                        "area", "heap")
+                .gauge("jvm_memory_committed_bytes", "Committed memory, by area.", nonHeap.getCommitted(),
+                        "area", "nonheap")
+                .gauge("jvm_memory_max_bytes", "Maximum heap size.", heap.getMax(), "area", "heap")
+                .gauge("jvm_threads_live", "Live platform threads.", threads.getThreadCount())
+                .gauge("jvm_threads_daemon", "Live daemon threads.", threads.getDaemonThreadCount())
+                .gauge("jvm_uptime_seconds", "Time since the JVM started.",
+                        ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0)
+                .gauge("jvm_available_processors", "Processors available to the JVM.",
+                        Runtime.getRuntime().availableProcessors());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.counter("jvm_gc_collections_total", "Garbage collections, by collector.",
+                    collector.getCollectionCount(), "gc", collector.getName());
+        }
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            writer.counter("jvm_gc_collection_seconds_total", "Time spent in garbage collection, by collector.",
+                    collector.getCollectionTime() / 1000.0, "gc", collector.getName());
+        }
+    }
+}
@@ -1,15 +1,35 @@
 package controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
+import admission.AdmissionController;
+import admission.Priority;
+import compression.ResponseCompression;
 import model.Account;
 import model.Message;
+import model.Page;
 import io.javalin.Javalin;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
+import json.JacksonJsonMapper;
+import metrics.RequestMetrics;
+import security.TokenStore;
 import service.AccountService;
 import service.MessageService;
+import util.Futures;
 import validator.AccountValidator;
 import validator.MessageValidator;
+import wire.BinaryEncoder;
+import wire.BinaryFormat;
 
 /**
  * The endpoints you will need can be found in readme.md as well as the test cases.
@@ -18,24 +38,91 @@ import validator.MessageValidator;
  */
 public class SocialMediaController {
 
-    private final MessageService messageService = new MessageService();
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String TOKEN_HEADER = "X-Auth-Token";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * Request attribute holding the id of the account whose token came with the request, if any.
+     */
+    public static final String ACCOUNT_ID_ATTRIBUTE = "account_id";
+
+    private final MessageService messageService;
+    private final AccountService accountService;
+    private final TokenStore tokenStore;
+    private final AccountValidator accountValidator;
+    private final MessageValidator messageValidator;
+    private final JacksonJsonMapper jsonMapper = new JacksonJsonMapper();
+    private final ResponseCompression responseCompression = ResponseCompression.fromSystemProperties();
+    private final RequestMetrics requestMetrics = new RequestMetrics();
+    private final AdmissionController admissionController = AdmissionController.fromSystemProperties();
+    private final MetricsController metricsController;
+
+    /**
+     * Builds its own services; {@link app.ApplicationContext} passes shared ones instead.
+     */
+    public SocialMediaController() {
+        this(new AccountService(), new MessageService(), TokenStore.fromSystemProperties());
+    }
+
+    public SocialMediaController(AccountService accountService, MessageService messageService, TokenStore tokenStore) {
+        this(accountService, messageService, tokenStore, new AccountValidator(), new MessageValidator(accountService));
+    }
+
+    public SocialMediaController(AccountService accountService, MessageService messageService, TokenStore tokenStore,
+                                 AccountValidator accountValidator, MessageValidator messageValidator) {
+        this.accountService = accountService;
+        this.messageService = messageService;
+        this.tokenStore = tokenStore;
+        this.accountValidator = accountValidator;
+        this.messageValidator = messageValidator;
+        this.metricsController = new MetricsController(requestMetrics, admissionController, accountService,
+                messageService, responseCompression);
+    }
 
     /**
      * In order for the test cases to work, you will need to write the endpoints in the startAPI() method, as the test
-     * suite must receive a Javalin object from this method.
+     * suite must receive a Javalin object from this method. It only builds the routes; migrating the schema and
+     * loading the account caches are up to {@link app.ApplicationContext}.
+     * <p>
+     * With {@code -Dserver.virtualThreads=true} on Java 21 or newer, every request is handled on its own virtual
+     * thread, so threads blocked on JDBC no longer cap concurrency; the connection pool then bounds database work.
+     * On older runtimes the setting falls back to the platform thread pool.
+     * <p>
+     * Javalin's own compression is turned off: the message lists, the only large responses, are compressed by
+     * {@link ResponseCompression} instead, which works on streamed bodies and reuses its deflaters.
+     * <p>
+     * Every request's latency and status are recorded by route, and {@code GET /metrics} serves them together with
+     * the pool, cache, executor and JVM metrics.
+     * <p>
+     * Every endpoint but {@code /metrics} goes through the {@link AdmissionController}, which answers 503 once the
+     * adaptive concurrency limit is reached, turning away full scans and bulk writes before writes, and writes
+     * before reads by id or page.
      *
      * @return a Javalin app object which defines the behavior of the Javalin controller.
      */
     public Javalin startAPI() {
-        Javalin app = Javalin.create();
-        app.post("/register", this::registerAccount);
-        app.post("/login", this::login);
-        app.post("/messages", this::createMessage);
-        app.get("/messages", this::retrieveAllMessages);
-        app.get("/messages/{id}", this::findMessageById);
-        app.get("/accounts/{account_id}/messages", this::findMessagesByAccountId);
-        app.patch("/messages/{id}", this::updateMessage);
-        app.delete("/messages/{id}", this::deleteMessage);
+        Javalin app = Javalin.create(config -> {
+            config.useVirtualThreads = Boolean.getBoolean("server.virtualThreads");
+            config.jsonMapper(jsonMapper);
+            config.http.disableCompression();
+        });
+        app.before(this::resolveCaller);
+        app.beforeMatched(requestMetrics::begin);
+        app.after(requestMetrics::end);
+        app.after(admissionController::release);
+        app.get("/metrics", metricsController::handle);
+        app.post("/register", admissionController.guard(Priority.NORMAL, this::registerAccount));
+        app.post("/login", admissionController.guard(Priority.NORMAL, this::login));
+        app.post("/messages", admissionController.guard(Priority.NORMAL, this::createMessage));
+        app.post("/messages/batch", admissionController.guard(Priority.LOW, this::createMessages));
+        app.get("/messages", admissionController.guard(
+                context -> isPageRequested(context) ? Priority.HIGH : Priority.LOW, this::retrieveAllMessages));
+        app.get("/messages/{id}", admissionController.guard(Priority.HIGH, this::findMessageById));
+        app.get("/accounts/{account_id}/messages", admissionController.guard(
+                context -> isPageRequested(context) ? Priority.HIGH : Priority.NORMAL, this::findMessagesByAccountId));
+        app.patch("/messages/{id}", admissionController.guard(Priority.NORMAL, this::updateMessage));
+        app.delete("/messages/{id}", admissionController.guard(Priority.NORMAL, this::deleteMessage));
 
         return app;
     }
@@ -46,18 +133,21 @@ public class SocialMediaController {
      * @param context manages information about HTTP request and response.
      */
     private void registerAccount(Context context) {
-        AccountService service = new AccountService();
-        AccountValidator validator = new AccountValidator(service);
         Account newAccount = context.bodyAsClass(Account.class);
         try {
-            if (validator.isUsernameBlank(newAccount)
-                    || validator.isLengthPasswordWeak(newAccount)
-                    || validator.isUsernameExist(newAccount)) {
+            if (accountValidator.isUsernameBlank(newAccount) || accountValidator.isLengthPasswordWeak(newAccount)) {
                 context.status(400);
                 return;
             }
-            service.create(newAccount);
-            context.status(200).json(newAccount);
+            context.future(() -> accountService.create(newAccount)
+                    .thenAccept(created -> {
+                        if (created) {
+                            respond(context.status(200), newAccount);
+                        } else {
+                            context.status(400);
+                        }
+                    })
+                    .exceptionally(e -> failAsync(context, e)));
         } catch (Exception e) {
             context.status(500);
             context.result(String.format("Internal server error: %s", e.getMessage()));
@@ -68,18 +158,57 @@ public class SocialMediaController {
      * Login of the verified Account
      *
      * @param context manages information about HTTP request and response.
-     * @return Account object
      */
-    public Account login(Context context) {
+    private void login(Context context) {
         Account account = context.bodyAsClass(Account.class);
-        AccountService service = new AccountService();
-        Account authAccount = service.login(account);
-        if (authAccount != null) {
-            context.status(200).json(authAccount);
+        try {
+            context.future(() -> accountService.login(account)
+                    .thenAccept(authAccount -> {
+                        if (authAccount != null) {
+                            context.header(TOKEN_HEADER, tokenStore.issue(authAccount.getAccount_id()));
+                            respond(context.status(200), authAccount);
+                        } else {
+                            context.status(401);
+                        }
+                    })
+                    .exceptionally(e -> failAsync(context, e)));
+        } catch (Exception e) {
+            context.status(500);
+            context.result(String.format("Internal server error: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Resolves the {@code Authorization: Bearer} token of the request, if any, to the caller's account id from the
+     * token store alone, and keeps it in the {@link #ACCOUNT_ID_ATTRIBUTE} attribute.
+     *
+     * @param context manages information about HTTP request and response.
+     */
+    private void resolveCaller(Context context) {
+        String authorization = context.header("Authorization");
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return;
+        }
+        Integer accountId = tokenStore.resolve(authorization.substring(BEARER_PREFIX.length()).trim());
+        if (accountId != null) {
+            context.attribute(ACCOUNT_ID_ATTRIBUTE, accountId);
+        }
+    }
+
+    /**
+     * Answers 503 when the password hashing or JDBC executor turned the request away, and 500 for any other failure.
+     */
+    private static Void failAsync(Context context, Throwable throwable) {
+        Throwable cause = Futures.unwrap(throwable);
+        if (cause instanceof RejectedExecutionException) {
+            context.status(503);
+            context.header("Retry-After", "1");
+            context.result("Service unavailable: server is busy");
         } else {
-            context.status(401);
+            context.status(500);
+            context.result(String.format("Internal server error: %s", cause.getMessage()));
         }
-        return authAccount;
+        return null;
     }
 
     /**
@@ -89,16 +218,24 @@ public class SocialMediaController {
      */
     private void createMessage(Context context) {
         Message message = context.bodyAsClass(Message.class);
-        MessageValidator validator = new MessageValidator(messageService);
         try {
-            if (validator.isPosterAccountMissing(message)
-                    || validator.isMessageOverLength(message)
-                    || validator.isMessageTextBlank(message)) {
+            if (messageValidator.isMessageOverLength(message)
+                    || messageValidator.isMessageTextBlank(message)) {
                 context.status(400);
                 return;
             }
-            messageService.create(message);
-            context.status(200).json(message);
+            context.future(() -> accountService.accountExistsAsync(message.getPosted_by())
+                    .thenCompose(exists -> exists
+                            ? messageService.createAsync(message)
+                            : CompletableFuture.<Message>completedFuture(null))
+                    .thenAccept(created -> {
+                        if (created != null) {
+                            respond(context.status(200), created);
+                        } else {
+                            context.status(400);
+                        }
+                    })
+                    .exceptionally(e -> failAsync(context, e)));
         } catch (Exception e) {
             context.status(500);
             context.result(String.format("Internal server error: %s", e.getMessage()));
@@ -106,17 +243,126 @@ public class SocialMediaController {
     }
 
     /**
-     * Retrieve all messages
+     * Create Message objects in bulk. Either all messages are valid and persisted, or none is.
      *
      * @param context manages information about HTTP request and response.
-     * @return list of messages from db.
      */
-    private List<Message> retrieveAllMessages(Context context) {
-        List<Message> listOfMessages = messageService.findAllMessages();
-        context.status(200).jsonStream(listOfMessages);
+    private void createMessages(Context context) {
+        List<Message> messages = Arrays.asList(context.bodyAsClass(Message[].class));
+        try {
+            for (Message message : messages) {
+                if (messageValidator.isPosterAccountMissing(message)
+                        || messageValidator.isMessageOverLength(message)
+                        || messageValidator.isMessageTextBlank(message)) {
+                    context.status(400);
+                    return;
+                }
+            }
+            messageService.createAll(messages);
+            writeMessages(context.status(200), messages);
+        } catch (Exception e) {
+            context.status(500);
+            context.result(String.format("Internal server error: %s", e.getMessage()));
+        }
+    }
 
-        return listOfMessages;
+    /**
+     * Retrieve all messages, or one page of them when {@code limit} or {@code after} is given.
+     *
+     * @param context manages information about HTTP request and response.
+     */
+    private void retrieveAllMessages(Context context) {
+        if (isPageRequested(context)) {
+            try {
+                Page<Message> page = messageService.findMessagesPage(context.queryParam("after"), pageLimit(context));
+                writeMessages(context.status(200), isAuthorExpanded(context) ? messageService.withAuthors(page) : page);
+            } catch (IllegalArgumentException e) {
+                context.status(400);
+            }
+            return;
+        }
+        Stream<Message> allMessages = messageService.streamAllMessages();
+        try (Stream<? extends Message> messages = isAuthorExpanded(context)
+                ? messageService.withAuthors(allMessages) : allMessages) {
+            if (accepts(context, BinaryFormat.CONTENT_TYPE)) {
+                writeBinary(context.status(200), messages);
+            } else if (accepts(context, NDJSON)) {
+                writeNdjson(context.status(200), messages);
+            } else {
+                context.status(200).contentType(ContentType.APPLICATION_JSON);
+                jsonMapper.writeToOutputStream(messages, responseCompression.open(context));
+            }
+        }
+    }
 
+    /**
+     * Writes the messages as newline-delimited JSON, one message per line.
+     */
+    private void writeNdjson(Context context, Stream<? extends Message> messages) {
+        context.contentType(NDJSON);
+        try (OutputStream outputStream = responseCompression.open(context)) {
+            messages.forEach(message -> {
+                try {
+                    outputStream.write(jsonMapper.toJsonString(message, message.getClass())
+                            .getBytes(StandardCharsets.UTF_8));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a message list or page, in the binary format if the client asked for it and as JSON otherwise, through
+     * {@link ResponseCompression}.
+     */
+    private void writeMessages(Context context, Object messages) {
+        if (!accepts(context, BinaryFormat.CONTENT_TYPE)) {
+            writeJson(context, messages);
+            return;
+        }
+        List<?> items;
+        if (messages instanceof Page) {
+            Page<?> page = (Page<?>) messages;
+            if (page.getNext_cursor() != null) {
+                context.header(BinaryFormat.NEXT_CURSOR_HEADER, page.getNext_cursor());
+            }
+            items = page.getItems();
+        } else {
+            items = (List<?>) messages;
+        }
+        writeBinary(context, items.stream());
+    }
+
+    /**
+     * Writes the elements as binary frames while the stream is consumed.
+     */
+    private void writeBinary(Context context, Stream<?> elements) {
+        context.contentType(BinaryFormat.CONTENT_TYPE);
+        try (OutputStream outputStream = responseCompression.open(context)) {
+            BinaryEncoder encoder = new BinaryEncoder(outputStream);
+            Iterator<?> iterator = elements.iterator();
+            while (iterator.hasNext()) {
+                encoder.write(iterator.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a message list or page as JSON through {@link ResponseCompression}.
+     */
+    private void writeJson(Context context, Object value) {
+        context.contentType(ContentType.APPLICATION_JSON);
+        try (OutputStream outputStream = responseCompression.open(context)) {
+            jsonMapper.writeValue(value, outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
@@ -126,11 +372,13 @@ public class SocialMediaController {
      */
     private void findMessageById(Context context) {
         int id = Integer.parseInt(context.pathParam("id"));
-        Message foundMessage = messageService.findByMessageId(id);
-        if (foundMessage != null) {
-            context.json(foundMessage);
-            context.status(200);
-        }
+        context.future(() -> messageService.findByMessageIdAsync(id)
+                .thenAccept(foundMessage -> {
+                    if (foundMessage != null) {
+                        respond(context.status(200), foundMessage);
+                    }
+                })
+                .exceptionally(e -> failAsync(context, e)));
     }
 
     /**
@@ -141,22 +389,21 @@ public class SocialMediaController {
     private void updateMessage(Context context) {
         int id = Integer.parseInt(context.pathParam("id"));
         Message message = context.bodyAsClass(Message.class);
-        Message existingMessage = messageService.findByMessageId(id);
-        MessageValidator validator = new MessageValidator(messageService);
-        if (existingMessage == null) {
-            context.status(400);
-            return;
-        }
-        existingMessage.setMessage_text(message.getMessage_text());
         try {
-            if (validator.isMessageOverLength(existingMessage)
-                    || validator.isMessageTextBlank(existingMessage)) {
+            if (messageValidator.isMessageOverLength(message)
+                    || messageValidator.isMessageTextBlank(message)) {
                 context.status(400);
                 return;
             }
-
-            messageService.updateMessage(existingMessage);
-            context.status(200).json(existingMessage);
+            context.future(() -> messageService.updateMessageTextAsync(id, message.getMessage_text())
+                    .thenAccept(updatedMessage -> {
+                        if (updatedMessage != null) {
+                            respond(context.status(200), updatedMessage);
+                        } else {
+                            context.status(400);
+                        }
+                    })
+                    .exceptionally(e -> failAsync(context, e)));
         } catch (Exception e) {
             context.status(500);
             context.result(String.format("Internal server error: %s", e.getMessage()));
@@ -170,13 +417,15 @@ public class SocialMediaController {
      */
     private void deleteMessage(Context context) {
         int id = Integer.parseInt(context.pathParam("id"));
-        Message foundMessage = messageService.findByMessageId(id);
-        if (foundMessage != null) {
-            messageService.deleteMessage(id);
-            context.status(200).json(foundMessage);
-        } else {
-            context.status(200).result("");
-        }
+        context.future(() -> messageService.deleteMessageAsync(id)
+                .thenAccept(deletedMessage -> {
+                    if (deletedMessage != null) {
+                        respond(context.status(200), deletedMessage);
+                    } else {
+                        context.status(200).result("");
+                    }
+                })
+                .exceptionally(e -> failAsync(context, e)));
     }
 
     /**
@@ -186,7 +435,74 @@ public class SocialMediaController {
      */
     public void findMessagesByAccountId(Context context) {
         int id = Integer.parseInt(context.pathParam("account_id"));
-        List<Message> listOfMessages = messageService.findAllMessagesByAccountId(id);
-        context.status(200).json(listOfMessages);
+        boolean withAuthor = isAuthorExpanded(context);
+        CompletableFuture<?> messages;
+        if (isPageRequested(context)) {
+            try {
+                String after = context.queryParam("after");
+                int limit = pageLimit(context);
+                messages = withAuthor
+                        ? messageService.findMessagesPageWithAuthorByAccountIdAsync(id, after, limit)
+                        : messageService.findMessagesPageByAccountIdAsync(id, after, limit);
+            } catch (IllegalArgumentException e) {
+                context.status(400);
+                return;
+            }
+        } else {
+            messages = withAuthor
+                    ? messageService.findAllMessagesWithAuthorByAccountIdAsync(id)
+                    : messageService.findAllMessagesByAccountIdAsync(id);
+        }
+        context.future(() -> messages
+                .thenAccept(result -> writeMessages(context.status(200), result))
+                .exceptionally(e -> failAsync(context, e)));
+    }
+
+    public ResponseCompression getResponseCompression() {
+        return responseCompression;
+    }
+
+    public RequestMetrics getRequestMetrics() {
+        return requestMetrics;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Sends a message or account as JSON, or in the binary format if the client asked for it.
+     */
+    private static void respond(Context context, Object value) {
+        if (accepts(context, BinaryFormat.CONTENT_TYPE)) {
+            context.contentType(BinaryFormat.CONTENT_TYPE).result(BinaryEncoder.encode(value));
+        } else {
+            context.json(value);
+        }
+    }
+
+    private static boolean accepts(Context context, String contentType) {
+        String accept = context.header("Accept");
+        return accept != null && accept.contains(contentType);
+    }
+
+    /**
+     * @return {@code true} if {@code expand} lists {@code author}, e.g. {@code ?expand=author}.
+     */
+    private static boolean isAuthorExpanded(Context context) {
+        String expand = context.queryParam("expand");
+        return expand != null && Arrays.asList(expand.split(",")).contains("author");
+    }
+
+    private static boolean isPageRequested(Context context) {
+        return context.queryParam("limit") != null || context.queryParam("after") != null;
+    }
+
+    /**
+     * @throws NumberFormatException (an IllegalArgumentException) if {@code limit} is not a number.
+     */
+    private static int pageLimit(Context context) {
+        String limit = context.queryParam("limit");
+        return limit == null ? MessageService.DEFAULT_PAGE_SIZE : Integer.parseInt(limit);
     }
-}
\ No newline at end of file
+}
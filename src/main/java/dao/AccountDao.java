@@ -1,5 +1,8 @@
 package dao;
 
+import java.util.Collection;
+import java.util.List;
+
 import model.Account;
 
 public interface AccountDao extends Dao<Account> {
@@ -7,5 +10,7 @@ public interface AccountDao extends Dao<Account> {
     void update(Account account);
     void delete(Account account);
     Account findByName(String username);
-    Account findByNameAndPass(String username, String password);
+    boolean updatePassword(Account account, String passwordHash);
+    boolean existsById(int id);
+    List<Account> findByIds(Collection<Integer> ids);
 }
@@ -1,9 +1,11 @@
 package dao;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface Dao<E> {
     void create(E entity);
+    void createAll(Collection<E> entities);
     void update(E entity);
     void delete(E entity);
     List<E> findAll();
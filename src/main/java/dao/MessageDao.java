@@ -1,6 +1,7 @@
 package dao;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import model.Message;
 
@@ -9,4 +10,35 @@ public interface MessageDao extends Dao<Message> {
     void update(Message message);
     void delete(Message message);
     List<Message> findMessagesByAccountId(int id);
+
+    /**
+     * Streams every message straight from an open cursor, holding only the current row in memory.
+     * The stream owns a connection until it is closed, so callers must close it (try-with-resources).
+     */
+    Stream<Message> streamAll();
+
+    /**
+     * @return at most {@code limit} messages with an id greater than {@code afterMessageId}, ordered by id.
+     */
+    List<Message> findPage(int afterMessageId, int limit);
+
+    /**
+     * @return at most {@code limit} messages of the account positioned after
+     * {@code (afterTimePostedEpoch, afterMessageId)}, ordered by time posted and then by id.
+     */
+    List<Message> findPageByAccountId(int accountId, long afterTimePostedEpoch, int afterMessageId, int limit);
+
+    /**
+     * Deletes the message and returns the deleted row in a single statement.
+     *
+     * @return the deleted message, or {@code null} if no message had this id.
+     */
+    Message deleteByIdReturning(int id);
+
+    /**
+     * Replaces the text of the message and returns the updated row in a single statement.
+     *
+     * @return the updated message, or {@code null} if no row was updated because no message had this id.
+     */
+    Message updateTextReturning(int id, String text);
 }
@@ -0,0 +1,39 @@
+package dao.async;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import dao.AccountDao;
+import model.Account;
+import util.BoundedExecutor;
+
+/**
+ * Runs {@link AccountDao} reads on the JDBC executor and returns their results as futures.
+ */
+public class AsyncAccountDao {
+
+    private final AccountDao accountDao;
+    private final BoundedExecutor executor;
+
+    public AsyncAccountDao(AccountDao accountDao, BoundedExecutor executor) {
+        this.accountDao = accountDao;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> existsById(int id) {
+        return executor.supply(() -> accountDao.existsById(id));
+    }
+
+    public CompletableFuture<Account> findById(int id) {
+        return executor.supply(() -> accountDao.findById(id));
+    }
+
+    public CompletableFuture<Account> findByName(String username) {
+        return executor.supply(() -> accountDao.findByName(username));
+    }
+
+    public CompletableFuture<List<Account>> findByIds(Collection<Integer> ids) {
+        return executor.supply(() -> accountDao.findByIds(ids));
+    }
+}
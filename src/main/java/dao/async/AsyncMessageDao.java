@@ -0,0 +1,54 @@
+package dao.async;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import dao.MessageDao;
+import model.Message;
+import util.BoundedExecutor;
+
+/**
+ * Runs {@link MessageDao} calls on the JDBC executor and returns their results as futures.
+ */
+public class AsyncMessageDao {
+
+    private final MessageDao messageDao;
+    private final BoundedExecutor executor;
+
+    public AsyncMessageDao(MessageDao messageDao, BoundedExecutor executor) {
+        this.messageDao = messageDao;
+        this.executor = executor;
+    }
+
+    /**
+     * @return a future of the given message, with its generated id set.
+     */
+    public CompletableFuture<Message> create(Message message) {
+        return executor.supply(() -> {
+            messageDao.create(message);
+            return message;
+        });
+    }
+
+    public CompletableFuture<Message> findById(int id) {
+        return executor.supply(() -> messageDao.findById(id));
+    }
+
+    public CompletableFuture<List<Message>> findMessagesByAccountId(int accountId) {
+        return executor.supply(() -> messageDao.findMessagesByAccountId(accountId));
+    }
+
+    public CompletableFuture<List<Message>> findPageByAccountId(int accountId, long afterTimePostedEpoch,
+                                                                int afterMessageId, int limit) {
+        return executor.supply(() -> messageDao.findPageByAccountId(accountId, afterTimePostedEpoch, afterMessageId,
+                limit));
+    }
+
+    public CompletableFuture<Message> updateTextReturning(int id, String text) {
+        return executor.supply(() -> messageDao.updateTextReturning(id, text));
+    }
+
+    public CompletableFuture<Message> deleteByIdReturning(int id) {
+        return executor.supply(() -> messageDao.deleteByIdReturning(id));
+    }
+}
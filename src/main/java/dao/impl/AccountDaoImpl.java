@@ -5,23 +5,207 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
+import cache.BloomFilter;
+import cache.CacheStats;
+import cache.IdBitSet;
+import cache.LruCache;
 import model.Account;
 import util.ConnectionUtil;
 import dao.AccountDao;
 import exception.DaoException;
+import exception.DuplicateEntityException;
 
 public class AccountDaoImpl extends GenericDao<Account> implements AccountDao {
 
     private static final String FIND_ALL_QUERY = "SELECT * FROM account";
+    private static final String FIND_ALL_KEYS_QUERY = "SELECT account_id, username FROM account";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM account WHERE account_id = ?";
+    private static final String FIND_BY_IDS_QUERY = "SELECT account_id, username FROM account WHERE account_id = ANY(?)";
+    private static final String EXISTS_BY_ID_QUERY = "SELECT 1 FROM account WHERE account_id = ?";
     private static final String FIND_BY_NAME_QUERY = "SELECT * FROM account WHERE username = ?";
-    private static final String FIND_BY_NAME_AND_PASS_QUERY = "SELECT * FROM account WHERE username = ? AND password = ?";
     private static final String CREATE_QUERY = "INSERT INTO account (username, password) VALUES (?, ?)";
     private static final String UPDATE_QUERY = "UPDATE account SET username = ? WHERE account_id = ?";
+    private static final String UPDATE_PASSWORD_QUERY = "UPDATE account SET password = ? WHERE account_id = ? AND password = ?";
     private static final String DELETE_QUERY = "DELETE FROM account WHERE account_id = ?";
 
+    /**
+     * Ids bound as one array in {@link #FIND_BY_IDS_QUERY}. A page holds at most
+     * {@code MessageService.MAX_PAGE_SIZE} messages, so by default one query covers a page's authors.
+     */
+    private static final int DEFAULT_LOOKUP_BATCH_SIZE = 1_000;
+
+    /**
+     * Ids and usernames of every account known to exist, loaded from the table on first use and kept current by
+     * this DAO's writes.
+     */
+    private final IdBitSet knownAccountIds = new IdBitSet();
+    private final BloomFilter knownUsernames = new BloomFilter(
+            Long.getLong("cache.accounts.expectedUsernames", 1_000_000L), 0.01);
+    private final ReentrantLock knownAccountsLock = new ReentrantLock();
+    private volatile boolean knownAccountsLoaded;
+
+    /**
+     * Accounts by username. Usernames that passed the Bloom filter but have no row are cached for a shorter time.
+     */
+    private final LruCache<String, Account> accountsByUsername;
+
+    /**
+     * The username filter and cache assume this instance sees every account write. When other processes register
+     * accounts in the same database, set {@code cache.accounts.enabled} to {@code false}.
+     */
+    private final boolean usernameCacheEnabled;
+
+    private int lookupBatchSize = Integer.getInteger("dao.lookupBatchSize", DEFAULT_LOOKUP_BATCH_SIZE);
+
+    public AccountDaoImpl() {
+        this.usernameCacheEnabled = Boolean.parseBoolean(System.getProperty("cache.accounts.enabled", "true"));
+        this.accountsByUsername = new LruCache<>(
+                Integer.getInteger("cache.accounts.maxSize", 10_000),
+                Long.getLong("cache.accounts.ttlMillis", 60_000L),
+                Long.getLong("cache.accounts.negativeTtlMillis", 5_000L));
+    }
+
+    public int getLookupBatchSize() {
+        return lookupBatchSize;
+    }
+
+    /**
+     * @param lookupBatchSize maximum number of ids bound as one array in a {@link #findByIds(Collection)} query.
+     *                        It is separate from {@link #getBatchSize()}, which sizes the JDBC batches of writes.
+     */
+    public void setLookupBatchSize(int lookupBatchSize) {
+        if (lookupBatchSize < 1) {
+            throw new IllegalArgumentException("Lookup batch size must be positive: " + lookupBatchSize);
+        }
+        this.lookupBatchSize = lookupBatchSize;
+    }
+
+    /**
+     * @throws DuplicateEntityException if the username is taken; the name is then recorded as known.
+     */
+    @Override
+    public void create(Account account) {
+        try {
+            super.create(account);
+        } catch (DuplicateEntityException e) {
+            knownUsernames.add(account.getUsername());
+            throw e;
+        }
+        knownAccountIds.add(account.getAccount_id());
+        knownUsernames.add(account.getUsername());
+        accountsByUsername.invalidate(account.getUsername());
+    }
+
+    @Override
+    public void createAll(Collection<Account> accounts) {
+        super.createAll(accounts);
+        for (Account account : accounts) {
+            knownAccountIds.add(account.getAccount_id());
+            knownUsernames.add(account.getUsername());
+            accountsByUsername.invalidate(account.getUsername());
+        }
+    }
+
+    /**
+     * The old username is not known here, so the whole username cache is dropped; renames are rare.
+     */
+    @Override
+    public void update(Account account) {
+        try {
+            super.update(account);
+            knownUsernames.add(account.getUsername());
+        } finally {
+            accountsByUsername.invalidateAll();
+        }
+    }
+
+    @Override
+    public void delete(Account account) {
+        try {
+            super.delete(account);
+            knownAccountIds.remove(account.getAccount_id());
+        } finally {
+            accountsByUsername.invalidateAll();
+        }
+    }
+
+    /**
+     * Answers from the in-memory id set, and only asks the database about ids it does not know,
+     * e.g. accounts created by another application instance.
+     */
+    @Override
+    public boolean existsById(int id) {
+        if (isKnownAccountId(id)) {
+            return true;
+        }
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(EXISTS_BY_ID_QUERY)) {
+
+            preparedStatement.setInt(1, id);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    knownAccountIds.add(id);
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot check account existence by id", e.getCause());
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} if the id is in the in-memory id set; {@code false} means "ask the database".
+     */
+    public boolean isKnownAccountId(int id) {
+        loadKnownAccounts();
+        return knownAccountIds.contains(id);
+    }
+
+    /**
+     * Loads the ids and usernames of all accounts into memory once; later calls return immediately.
+     */
+    public void loadKnownAccounts() {
+        if (knownAccountsLoaded) {
+            return;
+        }
+        knownAccountsLock.lock();
+        try {
+            if (knownAccountsLoaded) {
+                return;
+            }
+            try (Connection connection = ConnectionUtil.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(FIND_ALL_KEYS_QUERY);
+                 ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    knownAccountIds.add(resultSet.getInt(1));
+                    knownUsernames.add(resultSet.getString(2));
+                }
+            } catch (SQLException e) {
+                throw new DaoException("Cannot load account ids and usernames", e.getCause());
+            }
+            knownAccountsLoaded = true;
+        } finally {
+            knownAccountsLock.unlock();
+        }
+    }
+
+    public CacheStats getAccountCacheStats() {
+        return accountsByUsername.stats();
+    }
+
+    /**
+     * @return the filter that answers username lookups for names that were never registered.
+     */
+    public BloomFilter getUsernameFilter() {
+        return knownUsernames;
+    }
+
     @Override
     public List<Account> findAll() {
         List<Account> accounts = new ArrayList<>();
@@ -38,6 +222,35 @@ public class AccountDaoImpl extends GenericDao<Account> implements AccountDao {
         return accounts;
     }
 
+    /**
+     * Looks the accounts up by primary key, {@link #getLookupBatchSize()} ids per query. The returned accounts carry
+     * only their id and username, never the password.
+     */
+    @Override
+    public List<Account> findByIds(Collection<Integer> ids) {
+        List<Account> accounts = new ArrayList<>(ids.size());
+        if (ids.isEmpty()) {
+            return accounts;
+        }
+        Integer[] distinctIds = ids.stream().distinct().toArray(Integer[]::new);
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_IDS_QUERY)) {
+
+            for (int from = 0; from < distinctIds.length; from += lookupBatchSize) {
+                int to = Math.min(distinctIds.length, from + lookupBatchSize);
+                preparedStatement.setObject(1, Arrays.copyOfRange(distinctIds, from, to));
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        accounts.add(new Account(resultSet.getInt(1), resultSet.getString(2), null));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot find accounts by ids", e.getCause());
+        }
+        return accounts;
+    }
+
     @Override
     public Account findById(int id) {
         try (Connection connection = ConnectionUtil.getConnection();
@@ -55,37 +268,58 @@ public class AccountDaoImpl extends GenericDao<Account> implements AccountDao {
         return null;
     }
 
+    /**
+     * Names the Bloom filter has never seen are answered without a query; the rest go through the account cache.
+     */
     @Override
     public Account findByName(String username) {
+        if (!usernameCacheEnabled) {
+            return queryByName(username);
+        }
+        if (username == null) {
+            return null;
+        }
+        loadKnownAccounts();
+        if (!knownUsernames.mightContain(username)) {
+            return null;
+        }
+        return copy(accountsByUsername.get(username, this::queryByName));
+    }
+
+    /**
+     * Replaces the stored password only if it still is {@code account.getPassword()}, so a concurrent change is
+     * never overwritten.
+     *
+     * @return {@code true} if the password was replaced.
+     */
+    @Override
+    public boolean updatePassword(Account account, String passwordHash) {
         try (Connection connection = ConnectionUtil.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_NAME_QUERY)) {
+             PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_PASSWORD_QUERY)) {
 
-            preparedStatement.setString(1, username);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return setAccountFromResultSet(resultSet);
-                }
-            }
+            preparedStatement.setString(1, passwordHash);
+            preparedStatement.setInt(2, account.getAccount_id());
+            preparedStatement.setString(3, account.getPassword());
+            return preparedStatement.executeUpdate() > 0;
         } catch (SQLException e) {
-            throw new DaoException("Cannot find by username", e.getCause());
+            throw new DaoException("Cannot update account password", e.getCause());
+        } finally {
+            accountsByUsername.invalidate(account.getUsername());
         }
-        return null;
     }
 
-    @Override
-    public Account findByNameAndPass(String username, String password) {
+    private Account queryByName(String username) {
         try (Connection connection = ConnectionUtil.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_NAME_AND_PASS_QUERY)) {
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_BY_NAME_QUERY)) {
 
             preparedStatement.setString(1, username);
-            preparedStatement.setString(2, password);
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
                     return setAccountFromResultSet(resultSet);
                 }
             }
         } catch (SQLException e) {
-            throw new DaoException("Cannot find by username and password", e.getCause());
+            throw new DaoException("Cannot find by username", e.getCause());
         }
         return null;
     }
@@ -127,6 +361,13 @@ public class AccountDaoImpl extends GenericDao<Account> implements AccountDao {
         account.setAccount_id(id);
     }
 
+    private static Account copy(Account account) {
+        if (account == null) {
+            return null;
+        }
+        return new Account(account.getAccount_id(), account.getUsername(), account.getPassword());
+    }
+
     private Account setAccountFromResultSet(ResultSet resultSet) {
         Account account = new Account();
         try {
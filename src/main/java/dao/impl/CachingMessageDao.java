@@ -0,0 +1,134 @@
+package dao.impl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import cache.CacheStats;
+import cache.LruCache;
+import dao.MessageDao;
+import model.Message;
+
+/**
+ * Read-through cache in front of {@link MessageDao#findById(int)}.
+ * <p>
+ * Missing ids are cached too, for a shorter time. Every write through this DAO invalidates the ids it touches,
+ * including creates, which may turn a cached absence into a row. Callers get a copy of the cached message,
+ * so mutating it cannot corrupt the cache.
+ */
+public class CachingMessageDao implements MessageDao {
+
+    private final MessageDao delegate;
+    private final LruCache<Integer, Message> cache;
+
+    public CachingMessageDao(MessageDao delegate, int maxSize, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.cache = new LruCache<>(maxSize, ttlMillis, negativeTtlMillis);
+    }
+
+    /**
+     * Wraps the DAO in a cache configured by the {@code cache.messages.*} system properties,
+     * unless {@code cache.messages.enabled} is {@code false}.
+     */
+    public static MessageDao wrapIfEnabled(MessageDao delegate) {
+        if (!Boolean.parseBoolean(System.getProperty("cache.messages.enabled", "true"))) {
+            return delegate;
+        }
+        return new CachingMessageDao(delegate,
+                Integer.getInteger("cache.messages.maxSize", 10_000),
+                Long.getLong("cache.messages.ttlMillis", 60_000L),
+                Long.getLong("cache.messages.negativeTtlMillis", 5_000L));
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public Message findById(int id) {
+        return copy(cache.get(id, delegate::findById));
+    }
+
+    @Override
+    public void create(Message message) {
+        delegate.create(message);
+        cache.invalidate(message.getMessage_id());
+    }
+
+    @Override
+    public void createAll(Collection<Message> messages) {
+        delegate.createAll(messages);
+        for (Message message : messages) {
+            cache.invalidate(message.getMessage_id());
+        }
+    }
+
+    @Override
+    public void update(Message message) {
+        try {
+            delegate.update(message);
+        } finally {
+            cache.invalidate(message.getMessage_id());
+        }
+    }
+
+    @Override
+    public void delete(Message message) {
+        try {
+            delegate.delete(message);
+        } finally {
+            cache.invalidate(message.getMessage_id());
+        }
+    }
+
+    @Override
+    public Message deleteByIdReturning(int id) {
+        try {
+            return delegate.deleteByIdReturning(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public Message updateTextReturning(int id, String text) {
+        try {
+            return delegate.updateTextReturning(id, text);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Message> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Message> findMessagesByAccountId(int id) {
+        return delegate.findMessagesByAccountId(id);
+    }
+
+    @Override
+    public Stream<Message> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Message> findPage(int afterMessageId, int limit) {
+        return delegate.findPage(afterMessageId, limit);
+    }
+
+    @Override
+    public List<Message> findPageByAccountId(int accountId, long afterTimePostedEpoch, int afterMessageId, int limit) {
+        return delegate.findPageByAccountId(accountId, afterTimePostedEpoch, afterMessageId, limit);
+    }
+
+    private static Message copy(Message message) {
+        if (message == null) {
+            return null;
+        }
+        return new Message(message.getMessage_id(), message.getPosted_by(), message.getMessage_text(),
+                message.getTime_posted_epoch());
+    }
+}
@@ -6,13 +6,22 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 import util.ConnectionUtil;
 import dao.Dao;
 import exception.DaoException;
+import exception.DuplicateEntityException;
 
 public abstract class GenericDao<E> implements Dao<E> {
 
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private int batchSize = Integer.getInteger("dao.batchSize", DEFAULT_BATCH_SIZE);
+
     protected abstract String getUpdateQuery();
     protected abstract String getDeleteQuery();
     protected abstract String getCreateQuery();
@@ -21,6 +30,19 @@ public abstract class GenericDao<E> implements Dao<E> {
     protected abstract void prepareCreateStatement(PreparedStatement preparedStatement, E entity) throws SQLException;
     protected abstract void setEntityId(E entity, int id);
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize maximum number of rows sent to the database in one {@code executeBatch()} call.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
 
     @Override
     public void create(E entity) {
@@ -38,7 +60,44 @@ public abstract class GenericDao<E> implements Dao<E> {
             } catch (SQLException exception) {
                 connection.rollback();
                 connection.setAutoCommit(true);
-                throw new DaoException(exception.getMessage(), exception.getCause());
+                throw translate(exception);
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DaoException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Inserts all entities in one transaction, sending them in JDBC batches of {@link #getBatchSize()} rows,
+     * and assigns the generated ids back to the entities in iteration order.
+     */
+    @Override
+    public void createAll(Collection<E> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        try (Connection connection = ConnectionUtil.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement preparedStatement = connection.prepareStatement(getCreateQuery(), RETURN_GENERATED_KEYS)) {
+                List<E> chunk = new ArrayList<>(Math.min(batchSize, entities.size()));
+                for (E entity : entities) {
+                    prepareCreateStatement(preparedStatement, entity);
+                    preparedStatement.addBatch();
+                    chunk.add(entity);
+                    if (chunk.size() == batchSize) {
+                        executeCreateBatch(preparedStatement, chunk);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    executeCreateBatch(preparedStatement, chunk);
+                }
+            } catch (SQLException exception) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                throw translate(exception);
             }
             connection.commit();
             connection.setAutoCommit(true);
@@ -47,6 +106,29 @@ public abstract class GenericDao<E> implements Dao<E> {
         }
     }
 
+    /**
+     * Maps a unique constraint violation to {@link DuplicateEntityException}, so callers can treat it as an
+     * expected outcome rather than a failure.
+     */
+    protected static DaoException translate(SQLException exception) {
+        if (UNIQUE_VIOLATION_SQL_STATE.equals(exception.getSQLState())) {
+            return new DuplicateEntityException(exception.getMessage(), exception);
+        }
+        return new DaoException(exception.getMessage(), exception.getCause());
+    }
+
+    private void executeCreateBatch(PreparedStatement preparedStatement, List<E> chunk) throws SQLException {
+        preparedStatement.executeBatch();
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            for (E entity : chunk) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Missing generated key for batch of " + chunk.size() + " rows");
+                }
+                setEntityId(entity, generatedKeys.getInt(1));
+            }
+        }
+    }
+
     @Override
     public void update(E entity) {
         try (Connection connection = ConnectionUtil.getConnection()) {
@@ -70,7 +152,6 @@ public abstract class GenericDao<E> implements Dao<E> {
     public void delete(E entity) {
         try (Connection connection = ConnectionUtil.getConnection()) {
             connection.setAutoCommit(false);
-            connection.prepareStatement(getDeleteQuery());
             try (PreparedStatement preparedStatement = connection.prepareStatement(getDeleteQuery())) {
                 prepareRemoveStatement(preparedStatement, entity);
                 preparedStatement.executeUpdate();
@@ -6,6 +6,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import model.Message;
 import util.ConnectionUtil;
@@ -14,13 +19,31 @@ import exception.DaoException;
 
 public class MessageDaoImpl extends GenericDao<Message> implements MessageDao {
 
+    private static final int DEFAULT_STREAM_FETCH_SIZE = 256;
 
     private static final String FIND_ALL_QUERY = "SELECT * FROM message";
     private static final String FIND_BY_ID_QUERY = "SELECT * FROM message WHERE message_id = ?";
     private static final String FIND_BY_POSTED_ID_QUERY = "SELECT * FROM message WHERE posted_by = ?";
+    private static final String FIND_PAGE_QUERY = "SELECT * FROM message WHERE message_id > ? ORDER BY message_id LIMIT ?";
+    /**
+     * The row-value comparison lets H2 seek on {@code idx_message_posted_by_time}, and ordering by the full index
+     * key, {@code posted_by} included although it is fixed, lets it read the page in index order without sorting.
+     */
+    private static final String FIND_PAGE_BY_POSTED_ID_QUERY = "SELECT * FROM message WHERE posted_by = ? "
+            + "AND (time_posted_epoch, message_id) > (?, ?) "
+            + "ORDER BY posted_by, time_posted_epoch, message_id LIMIT ?";
     private static final String CREATE_QUERY = "INSERT INTO message (message_text, posted_by, time_posted_epoch) VALUES (?,?,?)";
     private static final String DELETE_QUERY = "DELETE FROM message WHERE message_id = ?";
     private static final String UPDATE_QUERY = "UPDATE message SET message_text = ? WHERE message_id = ?";
+    private static final String UPDATE_TEXT_RETURNING_QUERY = "SELECT * FROM FINAL TABLE (UPDATE message SET message_text = ? WHERE message_id = ?)";
+    private static final String DELETE_RETURNING_QUERY = "SELECT * FROM OLD TABLE (DELETE FROM message WHERE message_id = ?)";
+    private static final String ENABLE_LAZY_QUERY = "SET LAZY_QUERY_EXECUTION TRUE";
+
+    private int streamFetchSize = Integer.getInteger("dao.streamFetchSize", DEFAULT_STREAM_FETCH_SIZE);
+
+    public void setStreamFetchSize(int streamFetchSize) {
+        this.streamFetchSize = streamFetchSize;
+    }
 
     @Override
     public Message findById(int id) {
@@ -57,6 +80,81 @@ public class MessageDaoImpl extends GenericDao<Message> implements MessageDao {
         return messages;
     }
 
+    @Override
+    public List<Message> findPage(int afterMessageId, int limit) {
+        List<Message> messages = new ArrayList<>(limit);
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_PAGE_QUERY)) {
+
+            preparedStatement.setInt(1, afterMessageId);
+            preparedStatement.setInt(2, limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    messages.add(setMessageFromResultSet(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot find page of messages", e.getCause());
+        }
+        return messages;
+    }
+
+    @Override
+    public List<Message> findPageByAccountId(int accountId, long afterTimePostedEpoch, int afterMessageId, int limit) {
+        List<Message> messages = new ArrayList<>(limit);
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(FIND_PAGE_BY_POSTED_ID_QUERY)) {
+
+            preparedStatement.setInt(1, accountId);
+            preparedStatement.setLong(2, afterTimePostedEpoch);
+            preparedStatement.setInt(3, afterMessageId);
+            preparedStatement.setInt(4, limit);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    messages.add(setMessageFromResultSet(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot find page of messages by account id", e.getCause());
+        }
+        return messages;
+    }
+
+    @Override
+    public Message deleteByIdReturning(int id) {
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(DELETE_RETURNING_QUERY)) {
+
+            preparedStatement.setInt(1, id);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return setMessageFromResultSet(resultSet);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot delete message by id", e.getCause());
+        }
+        return null;
+    }
+
+    @Override
+    public Message updateTextReturning(int id, String text) {
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(UPDATE_TEXT_RETURNING_QUERY)) {
+
+            preparedStatement.setString(1, text);
+            preparedStatement.setInt(2, id);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return setMessageFromResultSet(resultSet);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DaoException("Cannot update message text by id", e.getCause());
+        }
+        return null;
+    }
+
     @Override
     public List<Message> findAll() {
         List<Message> messages = new ArrayList<>();
@@ -65,12 +163,7 @@ public class MessageDaoImpl extends GenericDao<Message> implements MessageDao {
 
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    Message message = new Message(
-                            resultSet.getInt("message_id"),
-                            resultSet.getInt("posted_by"),
-                            resultSet.getString("message_text"),
-                            resultSet.getInt("time_posted_epoch"));
-                    messages.add(message);
+                    messages.add(setMessageFromResultSet(resultSet));
                 }
             }
         } catch (SQLException e) {
@@ -79,6 +172,70 @@ public class MessageDaoImpl extends GenericDao<Message> implements MessageDao {
         return messages;
     }
 
+    /**
+     * H2 materialises a whole result before returning it unless lazy query execution is enabled for the session,
+     * so it is switched on for the lifetime of the stream. The pool switches it off again when the connection is
+     * returned, even if the stream failed midway.
+     */
+    @Override
+    public Stream<Message> streamAll() {
+        Connection connection = ConnectionUtil.getConnection();
+        PreparedStatement preparedStatement = null;
+        try {
+            execute(connection, ENABLE_LAZY_QUERY);
+            preparedStatement = connection.prepareStatement(FIND_ALL_QUERY);
+            preparedStatement.setFetchSize(streamFetchSize);
+            ResultSet resultSet = preparedStatement.executeQuery();
+            PreparedStatement streamStatement = preparedStatement;
+            return StreamSupport.stream(new ResultSetSpliterator(resultSet), false)
+                    .onClose(() -> closeStream(connection, streamStatement, resultSet));
+        } catch (SQLException | RuntimeException e) {
+            DaoException failure = new DaoException("Cannot stream all messages", e);
+            try {
+                closeStream(connection, preparedStatement, null);
+            } catch (RuntimeException cleanupFailure) {
+                failure.addSuppressed(cleanupFailure);
+            }
+            throw failure;
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.execute();
+        }
+    }
+
+    private static void closeStream(Connection connection, PreparedStatement preparedStatement, ResultSet resultSet) {
+        try (connection; preparedStatement; resultSet) {
+            // closed in reverse order; the connection goes back to the pool last
+        } catch (SQLException e) {
+            throw new DaoException("Cannot release message stream", e);
+        }
+    }
+
+    private final class ResultSetSpliterator extends Spliterators.AbstractSpliterator<Message> {
+        private final ResultSet resultSet;
+
+        private ResultSetSpliterator(ResultSet resultSet) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Message> action) {
+            try {
+                if (!resultSet.next()) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                throw new DaoException("Cannot read next message", e);
+            }
+            action.accept(setMessageFromResultSet(resultSet));
+            return true;
+        }
+    }
+
     @Override
     protected String getCreateQuery() {
         return CREATE_QUERY;
@@ -0,0 +1,11 @@
+package exception;
+
+/**
+ * Thrown when an insert or update violates a unique constraint.
+ */
+public class DuplicateEntityException extends DaoException {
+
+    public DuplicateEntityException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
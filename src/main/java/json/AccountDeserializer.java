@@ -0,0 +1,56 @@
+package json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import model.Account;
+
+/**
+ * Reads an {@link Account} from the token stream without reflection. Unknown fields are handled as configured on
+ * the mapper, by default as an error; when they are allowed, their values are skipped whole. Values of the wrong type
+ * are rejected, or coerced, exactly as bean deserialization does.
+ */
+public class AccountDeserializer extends StdDeserializer<Account> {
+
+    public AccountDeserializer() {
+        super(Account.class);
+    }
+
+    @Override
+    public Account deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken() && parser.currentToken() != JsonToken.FIELD_NAME) {
+            return (Account) context.handleUnexpectedToken(Account.class, parser);
+        }
+        Account account = new Account();
+        for (String field = parser.isExpectedStartObjectToken() ? parser.nextFieldName() : parser.currentName();
+             field != null; field = parser.nextFieldName()) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "account_id":
+                    account.setAccount_id(_parseIntPrimitive(parser, context));
+                    break;
+                case "username":
+                    account.setUsername(readString(parser, context, value));
+                    break;
+                case "password":
+                    account.setPassword(readString(parser, context, value));
+                    break;
+                default:
+                    context.handleUnknownProperty(parser, this, Account.class, field);
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return account;
+    }
+
+    private static String readString(JsonParser parser, DeserializationContext context, JsonToken value)
+            throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : StringDeserializer.instance.deserialize(parser, context);
+    }
+}
@@ -0,0 +1,36 @@
+package json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import model.Account;
+
+/**
+ * Writes an {@link Account} field by field, with pre-encoded field names, in the order of its declared fields.
+ */
+public class AccountSerializer extends StdSerializer<Account> {
+
+    private static final SerializedString ACCOUNT_ID = new SerializedString("account_id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+    private static final SerializedString PASSWORD = new SerializedString("password");
+
+    public AccountSerializer() {
+        super(Account.class);
+    }
+
+    @Override
+    public void serialize(Account account, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(account);
+        generator.writeFieldName(ACCOUNT_ID);
+        generator.writeNumber(account.getAccount_id());
+        generator.writeFieldName(USERNAME);
+        generator.writeString(account.getUsername());
+        generator.writeFieldName(PASSWORD);
+        generator.writeString(account.getPassword());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,136 @@
+package json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import io.javalin.json.JsonMapper;
+import model.Account;
+import model.Message;
+import model.MessageWithAuthor;
+
+/**
+ * Javalin {@link JsonMapper} that resolves an {@link ObjectReader} or {@link ObjectWriter} once per type and
+ * reuses it, and serializes the models with hand-written serializers instead of bean introspection.
+ * <p>
+ * The JSON is the same as Javalin's default mapper produces, field names and order included.
+ */
+public class JacksonJsonMapper implements JsonMapper {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter sequenceWriter;
+    private final Map<Type, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    public JacksonJsonMapper() {
+        this(createObjectMapper());
+    }
+
+    public JacksonJsonMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.sequenceWriter = objectMapper.writer();
+    }
+
+    /**
+     * @return a mapper with the model serializers and deserializers registered.
+     */
+    public static ObjectMapper createObjectMapper() {
+        SimpleModule module = new SimpleModule("social-media");
+        module.addSerializer(Message.class, new MessageSerializer());
+        module.addSerializer(MessageWithAuthor.class, new MessageWithAuthorSerializer());
+        module.addSerializer(Account.class, new AccountSerializer());
+        module.addDeserializer(Message.class, new MessageDeserializer());
+        module.addDeserializer(Account.class, new AccountDeserializer());
+        return new ObjectMapper().registerModule(module);
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    @Override
+    public String toJsonString(Object object, Type type) {
+        if (object instanceof String) {
+            return (String) object;
+        }
+        try {
+            return writerFor(type).writeValueAsString(object);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public InputStream toJsonStream(Object object, Type type) {
+        try {
+            return new ByteArrayInputStream(writerFor(type).writeValueAsBytes(object));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the elements as one JSON array while the stream is consumed, so the list is never held in memory.
+     */
+    @Override
+    public void writeToOutputStream(Stream<?> stream, OutputStream outputStream) {
+        try (SequenceWriter sequence = sequenceWriter.writeValuesAsArray(outputStream)) {
+            Iterator<?> elements = stream.iterator();
+            while (elements.hasNext()) {
+                sequence.write(elements.next());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one value, e.g. a list or a page, with the writer of its runtime type, and closes the stream.
+     */
+    public void writeValue(Object value, OutputStream outputStream) {
+        try {
+            writerFor(value.getClass()).writeValue(outputStream, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <T> T fromJsonString(String json, Type targetType) {
+        try {
+            return readerFor(targetType).readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <T> T fromJsonStream(InputStream json, Type targetType) {
+        try {
+            return readerFor(targetType).readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ObjectWriter writerFor(Type type) {
+        return writers.computeIfAbsent(type, key -> objectMapper.writerFor(objectMapper.constructType(key)));
+    }
+
+    private ObjectReader readerFor(Type type) {
+        return readers.computeIfAbsent(type, key -> objectMapper.readerFor(objectMapper.constructType(key)));
+    }
+}
@@ -0,0 +1,59 @@
+package json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+
+import model.Message;
+
+/**
+ * Reads a {@link Message} from the token stream without reflection. Unknown fields are handled as configured on
+ * the mapper, by default as an error; when they are allowed, their values are skipped whole. Values of the wrong type
+ * are rejected, or coerced, exactly as bean deserialization does.
+ */
+public class MessageDeserializer extends StdDeserializer<Message> {
+
+    public MessageDeserializer() {
+        super(Message.class);
+    }
+
+    @Override
+    public Message deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken() && parser.currentToken() != JsonToken.FIELD_NAME) {
+            return (Message) context.handleUnexpectedToken(Message.class, parser);
+        }
+        Message message = new Message();
+        for (String field = parser.isExpectedStartObjectToken() ? parser.nextFieldName() : parser.currentName();
+             field != null; field = parser.nextFieldName()) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "message_id":
+                    message.setMessage_id(_parseIntPrimitive(parser, context));
+                    break;
+                case "posted_by":
+                    message.setPosted_by(_parseIntPrimitive(parser, context));
+                    break;
+                case "message_text":
+                    message.setMessage_text(readString(parser, context, value));
+                    break;
+                case "time_posted_epoch":
+                    message.setTime_posted_epoch(_parseLongPrimitive(parser, context));
+                    break;
+                default:
+                    context.handleUnknownProperty(parser, this, Message.class, field);
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return message;
+    }
+
+    private static String readString(JsonParser parser, DeserializationContext context, JsonToken value)
+            throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : StringDeserializer.instance.deserialize(parser, context);
+    }
+}
@@ -0,0 +1,43 @@
+package json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import model.Message;
+
+/**
+ * Writes a {@link Message} field by field, with pre-encoded field names, in the order of its declared fields.
+ */
+public class MessageSerializer extends StdSerializer<Message> {
+
+    static final SerializedString MESSAGE_ID = new SerializedString("message_id");
+    static final SerializedString POSTED_BY = new SerializedString("posted_by");
+    static final SerializedString MESSAGE_TEXT = new SerializedString("message_text");
+    static final SerializedString TIME_POSTED_EPOCH = new SerializedString("time_posted_epoch");
+
+    public MessageSerializer() {
+        super(Message.class);
+    }
+
+    @Override
+    public void serialize(Message message, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(message);
+        writeFields(message, generator);
+        generator.writeEndObject();
+    }
+
+    static void writeFields(Message message, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(MESSAGE_ID);
+        generator.writeNumber(message.getMessage_id());
+        generator.writeFieldName(POSTED_BY);
+        generator.writeNumber(message.getPosted_by());
+        generator.writeFieldName(MESSAGE_TEXT);
+        generator.writeString(message.getMessage_text());
+        generator.writeFieldName(TIME_POSTED_EPOCH);
+        generator.writeNumber(message.getTime_posted_epoch());
+    }
+}
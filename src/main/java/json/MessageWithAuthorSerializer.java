@@ -0,0 +1,45 @@
+package json;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import model.Author;
+import model.MessageWithAuthor;
+
+/**
+ * Writes a {@link MessageWithAuthor} as the message's fields followed by an {@code author} object.
+ */
+public class MessageWithAuthorSerializer extends StdSerializer<MessageWithAuthor> {
+
+    private static final SerializedString AUTHOR = new SerializedString("author");
+    private static final SerializedString ACCOUNT_ID = new SerializedString("account_id");
+    private static final SerializedString USERNAME = new SerializedString("username");
+
+    public MessageWithAuthorSerializer() {
+        super(MessageWithAuthor.class);
+    }
+
+    @Override
+    public void serialize(MessageWithAuthor message, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(message);
+        MessageSerializer.writeFields(message, generator);
+        generator.writeFieldName(AUTHOR);
+        Author author = message.getAuthor();
+        if (author == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject(author);
+            generator.writeFieldName(ACCOUNT_ID);
+            generator.writeNumber(author.getAccount_id());
+            generator.writeFieldName(USERNAME);
+            generator.writeString(author.getUsername());
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+}
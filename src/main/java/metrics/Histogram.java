@@ -0,0 +1,115 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed, exponentially spaced buckets.
+ * Recording a value is a bucket search plus two atomic increments and never allocates.
+ */
+public class Histogram {
+
+    private static final long[] UPPER_BOUNDS_NANOS = {
+            TimeUnit.MICROSECONDS.toNanos(50),
+            TimeUnit.MICROSECONDS.toNanos(100),
+            TimeUnit.MICROSECONDS.toNanos(250),
+            TimeUnit.MICROSECONDS.toNanos(500),
+            TimeUnit.MILLISECONDS.toNanos(1),
+            TimeUnit.MILLISECONDS.toNanos(2),
+            TimeUnit.MILLISECONDS.toNanos(5),
+            TimeUnit.MILLISECONDS.toNanos(10),
+            TimeUnit.MILLISECONDS.toNanos(25),
+            TimeUnit.MILLISECONDS.toNanos(50),
+            TimeUnit.MILLISECONDS.toNanos(100),
+            TimeUnit.MILLISECONDS.toNanos(250),
+            TimeUnit.MILLISECONDS.toNanos(500),
+            TimeUnit.SECONDS.toNanos(1),
+            TimeUnit.SECONDS.toNanos(2),
+            TimeUnit.SECONDS.toNanos(5),
+            TimeUnit.SECONDS.toNanos(10),
+            Long.MAX_VALUE
+    };
+
+    private final AtomicLongArray counts = new AtomicLongArray(UPPER_BOUNDS_NANOS.length);
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    /**
+     * @param nanos elapsed time in nanoseconds; negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        sumNanos.addAndGet(value);
+    }
+
+    /**
+     * @return upper bounds (inclusive) of every bucket in nanoseconds, the last one being {@link Long#MAX_VALUE}.
+     */
+    public static long[] upperBoundsNanos() {
+        return UPPER_BOUNDS_NANOS.clone();
+    }
+
+    /**
+     * @return per-bucket (non-cumulative) counts, index-aligned with {@link #upperBoundsNanos()}.
+     */
+    public long[] counts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long sumNanos() {
+        return sumNanos.get();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket that contains it.
+     *
+     * @param percentile value between 0 and 100.
+     * @return the estimated value in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long percentileNanos(double percentile) {
+        long[] snapshot = counts();
+        long total = 0;
+        for (long count : snapshot) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0) {
+                return UPPER_BOUNDS_NANOS[i];
+            }
+        }
+        return UPPER_BOUNDS_NANOS[UPPER_BOUNDS_NANOS.length - 1];
+    }
+
+    private static int bucketIndex(long nanos) {
+        int low = 0;
+        int high = UPPER_BOUNDS_NANOS.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (UPPER_BOUNDS_NANOS[mid] < nanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,110 @@
+package metrics;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders samples in the Prometheus text exposition format (version 0.0.4).
+ * <p>
+ * The {@code # HELP} and {@code # TYPE} lines are written before the first sample of each metric, so all samples of
+ * a metric must be written one after the other. Labels are given as name/value pairs.
+ */
+public class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final StringBuilder output = new StringBuilder(16_384);
+    private final Set<String> described = new HashSet<>();
+
+    public PrometheusWriter counter(String name, String help, double value, String... labels) {
+        describe(name, help, "counter");
+        sample(name, labels, null, null, value);
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value, String... labels) {
+        describe(name, help, "gauge");
+        sample(name, labels, null, null, value);
+        return this;
+    }
+
+    /**
+     * Writes a latency histogram in seconds: one cumulative {@code _bucket} sample per bucket, then {@code _sum} and
+     * {@code _count}.
+     */
+    public PrometheusWriter histogram(String name, String help, Histogram histogram, String... labels) {
+        describe(name, help, "histogram");
+        long[] upperBounds = Histogram.upperBoundsNanos();
+        long[] counts = histogram.counts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            String bound = upperBounds[i] == Long.MAX_VALUE ? "+Inf" : format(upperBounds[i] / NANOS_PER_SECOND);
+            sample(name + "_bucket", labels, "le", bound, cumulative);
+        }
+        sample(name + "_sum", labels, null, null, histogram.sumNanos() / NANOS_PER_SECOND);
+        sample(name + "_count", labels, null, null, cumulative);
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return output.toString();
+    }
+
+    private void describe(String name, String help, String type) {
+        if (described.add(name)) {
+            output.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            output.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    private void sample(String name, String[] labels, String extraLabel, String extraValue, double value) {
+        output.append(name);
+        if (labels.length > 0 || extraLabel != null) {
+            output.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                appendLabel(labels[i], labels[i + 1], i > 0);
+            }
+            if (extraLabel != null) {
+                appendLabel(extraLabel, extraValue, labels.length > 0);
+            }
+            output.append('}');
+        }
+        output.append(' ').append(format(value)).append('\n');
+    }
+
+    private void appendLabel(String name, String value, boolean separator) {
+        if (separator) {
+            output.append(',');
+        }
+        output.append(name).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                output.append('\\').append(c);
+            } else if (c == '\n') {
+                output.append("\\n");
+            } else {
+                output.append(c);
+            }
+        }
+        output.append('"');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
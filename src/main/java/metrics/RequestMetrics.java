@@ -0,0 +1,118 @@
+package metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+
+/**
+ * Records the latency and status of every request by route, keyed by the path template the endpoint was registered
+ * with rather than the concrete path, so {@code /messages/1} and {@code /messages/2} share {@code /messages/{id}}.
+ * <p>
+ * {@link #begin(Context)} is meant as a before-matched handler and {@link #end(Context)} as an after handler. Javalin
+ * only knows the endpoint's path template once the endpoint ran, so the route is resolved in the after handler and
+ * the in-flight gauge covers all routes. Once a route has been seen, recording only updates counters and a histogram;
+ * the one allocation per request is the boxed start time kept in a request attribute. Requests that match no
+ * endpoint are counted by status under the route {@value #UNMATCHED_ROUTE}.
+ */
+public class RequestMetrics {
+
+    public static final String UNMATCHED_ROUTE = "unmatched";
+
+    private static final String START_ATTRIBUTE = "metrics.start";
+    private static final int METHODS = HandlerType.values().length;
+
+    private final Map<String, AtomicReferenceArray<RouteMetrics>> routes = new ConcurrentHashMap<>();
+    private final LongAdder inFlight = new LongAdder();
+
+    public void begin(Context context) {
+        inFlight.increment();
+        context.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    public void end(Context context) {
+        Long start = context.attribute(START_ATTRIBUTE);
+        if (start == null) {
+            route(context.method(), UNMATCHED_ROUTE).countStatus(context.statusCode());
+            return;
+        }
+        inFlight.decrement();
+        route(context.method(), context.endpointHandlerPath()).record(System.nanoTime() - start, context.statusCode());
+    }
+
+    /**
+     * @return the routes seen so far, ordered by route and method.
+     */
+    public List<RouteMetrics> getRoutes() {
+        List<RouteMetrics> snapshot = new ArrayList<>();
+        for (AtomicReferenceArray<RouteMetrics> methods : routes.values()) {
+            for (int i = 0; i < methods.length(); i++) {
+                if (methods.get(i) != null) {
+                    snapshot.add(methods.get(i));
+                }
+            }
+        }
+        snapshot.sort(Comparator.comparing(RouteMetrics::getRoute).thenComparing(RouteMetrics::getMethod));
+        return snapshot;
+    }
+
+    /**
+     * @return the route's metrics, or {@code null} if no request was recorded for it.
+     */
+    public RouteMetrics getRoute(HandlerType method, String route) {
+        AtomicReferenceArray<RouteMetrics> methods = routes.get(route);
+        return methods == null ? null : methods.get(method.ordinal());
+    }
+
+    /**
+     * Forgets the routes recorded so far, e.g. those of warm-up requests. Requests in flight are still counted.
+     */
+    public void reset() {
+        routes.clear();
+    }
+
+    /**
+     * @return number of requests being handled right now, over all routes.
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    public void writeTo(PrometheusWriter writer) {
+        List<RouteMetrics> snapshot = getRoutes();
+        for (RouteMetrics route : snapshot) {
+            if (route.getRoute().equals(UNMATCHED_ROUTE)) {
+                continue;
+            }
+            writer.histogram("http_server_request_duration_seconds", "Time to handle a request, by route.",
+                    route.getLatency(), "method", route.getMethod(), "route", route.getRoute());
+        }
+        for (RouteMetrics route : snapshot) {
+            for (int status : route.getStatuses()) {
+                writer.counter("http_server_responses_total", "Responses sent, by route and status.",
+                        route.getStatusCount(status), "method", route.getMethod(), "route", route.getRoute(),
+                        "status", Integer.toString(status));
+            }
+        }
+        writer.gauge("http_server_requests_in_flight", "Requests being handled.", inFlight.sum());
+    }
+
+    private RouteMetrics route(HandlerType method, String path) {
+        AtomicReferenceArray<RouteMetrics> methods = routes.get(path);
+        if (methods == null) {
+            methods = routes.computeIfAbsent(path, key -> new AtomicReferenceArray<>(METHODS));
+        }
+        RouteMetrics route = methods.get(method.ordinal());
+        if (route == null) {
+            methods.compareAndSet(method.ordinal(), null, new RouteMetrics(method.name(), path));
+            route = methods.get(method.ordinal());
+        }
+        return route;
+    }
+}
@@ -0,0 +1,72 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency and response status counters of one route, e.g. {@code GET /messages/{id}}.
+ */
+public class RouteMetrics {
+
+    private static final int MAX_STATUS = 599;
+
+    private final String method;
+    private final String route;
+    private final Histogram latency = new Histogram();
+    private final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS + 1);
+
+    RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    void record(long nanos, int status) {
+        latency.record(nanos);
+        countStatus(status);
+    }
+
+    void countStatus(int status) {
+        statuses.incrementAndGet(status < 0 || status > MAX_STATUS ? 0 : status);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the path template the route was registered with.
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return number of responses with the status; statuses outside 0-599 are counted as 0.
+     */
+    public long getStatusCount(int status) {
+        return status < 0 || status > MAX_STATUS ? 0 : statuses.get(status);
+    }
+
+    /**
+     * @return the statuses that were answered at least once, in ascending order.
+     */
+    public int[] getStatuses() {
+        int count = 0;
+        for (int status = 0; status <= MAX_STATUS; status++) {
+            if (statuses.get(status) > 0) {
+                count++;
+            }
+        }
+        int[] answered = new int[count];
+        int index = 0;
+        for (int status = 0; status <= MAX_STATUS && index < count; status++) {
+            if (statuses.get(status) > 0) {
+                answered[index++] = status;
+            }
+        }
+        return answered;
+    }
+}
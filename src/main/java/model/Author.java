@@ -0,0 +1,63 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * This is a class that models the public part of an Account, shown as the author of a message.
+ * It never carries a password.
+ */
+public class Author {
+    /**
+     * The id of the Account.
+     */
+    public int account_id;
+    /**
+     * The username of the Account.
+     */
+    public String username;
+
+    public Author() {
+    }
+
+    public Author(int account_id, String username) {
+        this.account_id = account_id;
+        this.username = username;
+    }
+
+    public int getAccount_id() {
+        return account_id;
+    }
+
+    public void setAccount_id(int account_id) {
+        this.account_id = account_id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Author author = (Author) o;
+        return account_id == author.account_id && Objects.equals(username, author.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(account_id, username);
+    }
+
+    @Override
+    public String toString() {
+        return "Author{" +
+                "account_id=" + account_id +
+                ", username='" + username + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,63 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of a message in a keyset-paginated list, ordered by {@code (time_posted_epoch, message_id)}.
+ * Clients only see the opaque string produced by {@link #encode()}.
+ */
+public class MessageCursor {
+
+    /**
+     * Cursor positioned before every message.
+     */
+    public static final MessageCursor START = new MessageCursor(Long.MIN_VALUE, 0);
+
+    private static final String VERSION = "v1";
+
+    private final long timePostedEpoch;
+    private final int messageId;
+
+    public MessageCursor(long timePostedEpoch, int messageId) {
+        this.timePostedEpoch = timePostedEpoch;
+        this.messageId = messageId;
+    }
+
+    public static MessageCursor after(Message message) {
+        return new MessageCursor(message.getTime_posted_epoch(), message.getMessage_id());
+    }
+
+    public long getTimePostedEpoch() {
+        return timePostedEpoch;
+    }
+
+    public int getMessageId() {
+        return messageId;
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + timePostedEpoch + ":" + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor a string produced by {@link #encode()}, or null for the first page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static MessageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !parts[0].equals(VERSION)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new MessageCursor(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * This is a class that models a Message together with its author, returned when a list is requested with
+ * {@code expand=author}.
+ */
+public class MessageWithAuthor extends Message {
+    /**
+     * The account that posted this message, or null if it no longer exists.
+     */
+    public Author author;
+
+    public MessageWithAuthor() {
+    }
+
+    public MessageWithAuthor(Message message, Author author) {
+        super(message.getMessage_id(), message.getPosted_by(), message.getMessage_text(),
+                message.getTime_posted_epoch());
+        this.author = author;
+    }
+
+    public Author getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(Author author) {
+        this.author = author;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageWithAuthor{" +
+                "message_id=" + message_id +
+                ", posted_by=" + posted_by +
+                ", message_text='" + message_text + '\'' +
+                ", time_posted_epoch=" + time_posted_epoch +
+                ", author=" + author +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package model;
+
+import java.util.List;
+
+/**
+ * This is a class that models one page of a keyset-paginated list.
+ */
+public class Page<T> {
+    /**
+     * The elements of this page, in list order.
+     */
+    public List<T> items;
+    /**
+     * Opaque cursor to pass as {@code after} to fetch the next page, or null if this is the last page.
+     */
+    public String next_cursor;
+
+    public Page() {
+    }
+
+    public Page(List<T> items, String next_cursor) {
+        this.items = items;
+        this.next_cursor = next_cursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNext_cursor() {
+        return next_cursor;
+    }
+
+    public void setNext_cursor(String next_cursor) {
+        this.next_cursor = next_cursor;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items +
+                ", next_cursor='" + next_cursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+package security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Self-validating tokens of the form {@code <account id>.<expiry epoch millis>.<signature>}, signed with
+ * HMAC-SHA256.
+ * <p>
+ * Resolving a token only recomputes its signature, so it needs neither memory per session nor a lookup, and every
+ * instance sharing the secret accepts it. The price is that a token cannot be revoked before it expires:
+ * {@link #revoke(String)} does nothing.
+ */
+public class HmacTokenStore implements TokenStore {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+
+    public HmacTokenStore(byte[] secret, long ttlMillis) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Reads the Base64 secret from {@code auth.tokens.secret}. Without it a random secret is generated, so tokens
+     * only survive as long as the process.
+     */
+    static byte[] secretFromSystemProperties() {
+        String secret = System.getProperty("auth.tokens.secret");
+        if (secret != null) {
+            return Base64.getDecoder().decode(secret);
+        }
+        byte[] random = new byte[32];
+        new SecureRandom().nextBytes(random);
+        return random;
+    }
+
+    @Override
+    public String issue(int accountId) {
+        String payload = accountId + "." + (System.currentTimeMillis() + ttlMillis);
+        return payload + "." + sign(payload);
+    }
+
+    @Override
+    public Integer resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        int signatureStart = token.lastIndexOf('.');
+        int expiryStart = token.indexOf('.');
+        if (signatureStart <= 0 || expiryStart == signatureStart) {
+            return null;
+        }
+        String payload = token.substring(0, signatureStart);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        try {
+            long expiresAt = Long.parseLong(payload.substring(expiryStart + 1));
+            if (System.currentTimeMillis() >= expiresAt) {
+                return null;
+            }
+            return Integer.parseInt(payload.substring(0, expiryStart));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void revoke(String token) {
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign token with " + ALGORITHM, e);
+        }
+    }
+}
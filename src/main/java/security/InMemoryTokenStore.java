@@ -0,0 +1,53 @@
+package security;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import cache.CacheStats;
+import cache.LruCache;
+
+/**
+ * Random, opaque tokens held in a bounded in-memory map.
+ * <p>
+ * Tokens expire a fixed time after they were issued. When the store is full the least recently used session is
+ * dropped, and its holder has to log in again.
+ */
+public class InMemoryTokenStore implements TokenStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final LruCache<String, Integer> sessions;
+    private final SecureRandom random = new SecureRandom();
+
+    public InMemoryTokenStore(int maxSize, long ttlMillis) {
+        this.sessions = new LruCache<>(maxSize, ttlMillis, 0);
+    }
+
+    @Override
+    public String issue(int accountId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, accountId);
+        return token;
+    }
+
+    @Override
+    public Integer resolve(String token) {
+        if (token == null) {
+            return null;
+        }
+        return sessions.get(token, unknown -> null);
+    }
+
+    @Override
+    public void revoke(String token) {
+        if (token != null) {
+            sessions.invalidate(token);
+        }
+    }
+
+    public CacheStats getStats() {
+        return sessions.stats();
+    }
+}
@@ -0,0 +1,165 @@
+package security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+import util.BoundedExecutor;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashing on a dedicated, bounded thread pool.
+ * <p>
+ * Hashes are stored as {@code pbkdf2_sha256$<iterations>$<salt>$<hash>} with Base64 salt and hash, so the work
+ * factor can be raised without invalidating existing passwords: {@link #needsRehash(String)} tells the caller when a
+ * verified password should be hashed again. Anything else is treated as a legacy plaintext password.
+ * <p>
+ * The pool has at most {@code threads} workers and {@code queueSize} waiting tasks. When both are full the async
+ * methods fail fast with {@link java.util.concurrent.RejectedExecutionException}, so a login storm is turned away instead of piling up
+ * behind the HTTP threads.
+ */
+public class PasswordHasher implements AutoCloseable {
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2_sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final BoundedExecutor executor;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * @param iterations PBKDF2 work factor for new hashes.
+     * @param threads    maximum number of passwords hashed at the same time.
+     * @param queueSize  maximum number of hashing tasks waiting for a thread.
+     */
+    public PasswordHasher(int iterations, int threads, int queueSize) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be positive: " + iterations);
+        }
+        this.iterations = iterations;
+        this.executor = new BoundedExecutor("password-hasher", threads, queueSize);
+    }
+
+    /**
+     * Reads {@code auth.password.iterations}, {@code auth.hashing.threads} and {@code auth.hashing.queueSize}.
+     */
+    public static PasswordHasher fromSystemProperties() {
+        return new PasswordHasher(
+                Integer.getInteger("auth.password.iterations", 210_000),
+                Integer.getInteger("auth.hashing.threads", Runtime.getRuntime().availableProcessors()),
+                Integer.getInteger("auth.hashing.queueSize", 64));
+    }
+
+    /**
+     * @return the process-wide hasher configured from system properties.
+     */
+    public static PasswordHasher getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return number of hashing tasks turned away because the pool and its queue were full.
+     */
+    public long getRejected() {
+        return executor.getRejected();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueueDepth();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getMaxThreads() {
+        return executor.getMaxThreads();
+    }
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return executor.supply(() -> hash(password));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String password, String stored) {
+        return executor.supply(() -> verify(password, stored));
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(pbkdf2(password, salt, iterations, HASH_BITS));
+    }
+
+    /**
+     * Compares in constant time against a stored hash, or against a legacy plaintext password.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) {
+            return false;
+        }
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(expected, pbkdf2(password, salt, storedIterations, expected.length * 8));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return {@code true} for plaintext passwords and for hashes made with a different work factor.
+     */
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || !parts[1].equals(Integer.toString(iterations));
+    }
+
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations, int bits) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, bits);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot hash password with " + ALGORITHM, e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static final class DefaultHolder {
+        private static final PasswordHasher INSTANCE = fromSystemProperties();
+    }
+}
@@ -0,0 +1,28 @@
+package security;
+
+/**
+ * Issues credentials after login and maps them back to the account they were issued for.
+ */
+public interface TokenStore {
+
+    String issue(int accountId);
+
+    /**
+     * @return the account id the token was issued for, or {@code null} if the token is unknown, expired or forged.
+     */
+    Integer resolve(String token);
+
+    void revoke(String token);
+
+    /**
+     * Reads {@code auth.tokens.mode}: {@code opaque} (default) keeps random tokens in memory, {@code hmac} issues
+     * signed tokens that are validated without any lookup but cannot be revoked before they expire.
+     */
+    static TokenStore fromSystemProperties() {
+        long ttlMillis = Long.getLong("auth.tokens.ttlMillis", 3_600_000L);
+        if ("hmac".equalsIgnoreCase(System.getProperty("auth.tokens.mode", "opaque"))) {
+            return new HmacTokenStore(HmacTokenStore.secretFromSystemProperties(), ttlMillis);
+        }
+        return new InMemoryTokenStore(Integer.getInteger("auth.tokens.maxSize", 100_000), ttlMillis);
+    }
+}
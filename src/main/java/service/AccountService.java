@@ -1,28 +1,144 @@
 package service;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import cache.BloomFilter;
+import cache.CacheStats;
 import model.Account;
+import dao.async.AsyncAccountDao;
 import dao.impl.AccountDaoImpl;
+import exception.DuplicateEntityException;
+import security.PasswordHasher;
+import util.BoundedExecutor;
+import util.ConnectionUtil;
+import util.Futures;
 
 public class AccountService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccountService.class);
+
     private AccountDaoImpl accountDaoImpl;
+    private AsyncAccountDao asyncAccountDao;
+    private PasswordHasher passwordHasher;
+    private BoundedExecutor jdbcExecutor;
 
     public AccountService() {
-        accountDaoImpl = new AccountDaoImpl();
+        this(new AccountDaoImpl());
     }
 
     public AccountService(AccountDaoImpl accountDaoImpl) {
+        this(accountDaoImpl, PasswordHasher.getDefault());
+    }
+
+    public AccountService(AccountDaoImpl accountDaoImpl, PasswordHasher passwordHasher) {
         this.accountDaoImpl = accountDaoImpl;
+        this.jdbcExecutor = ConnectionUtil.getJdbcExecutor();
+        this.asyncAccountDao = new AsyncAccountDao(accountDaoImpl, jdbcExecutor);
+        this.passwordHasher = passwordHasher;
     }
 
-    public void create(Account account) {
-        accountDaoImpl.create(account);
+    /**
+     * Hashes the password on the hashing pool, then inserts the account in a single statement on the JDBC executor,
+     * so hashing threads never wait for a connection; the username's UNIQUE constraint decides concurrent
+     * registrations. On success the account id is set on the given account, whose password is left as submitted.
+     *
+     * @return a future of {@code false} if the username is already taken.
+     */
+    public CompletableFuture<Boolean> create(Account account) {
+        return passwordHasher.hashAsync(account.getPassword()).thenCompose(passwordHash -> jdbcExecutor.supply(() -> {
+            Account stored = new Account(account.getUsername(), passwordHash);
+            try {
+                accountDaoImpl.create(stored);
+            } catch (DuplicateEntityException e) {
+                return false;
+            }
+            account.setAccount_id(stored.getAccount_id());
+            return true;
+        }));
     }
 
-    public Account login(Account account) {
-        return accountDaoImpl.findByNameAndPass(account.getUsername(), account.getPassword());
+    /**
+     * Looks the account up on the JDBC executor, then verifies the password on the hashing pool. A password stored in
+     * plaintext or with an outdated work factor is hashed again with the current one and stored on the JDBC executor.
+     *
+     * @return a future of the account, carrying the submitted password, or of {@code null} if the credentials
+     * don't match.
+     */
+    public CompletableFuture<Account> login(Account credentials) {
+        return asyncAccountDao.findByName(credentials.getUsername()).thenCompose(account -> {
+            if (account == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return passwordHasher.verifyAsync(credentials.getPassword(), account.getPassword())
+                    .thenCompose(matches -> {
+                        if (!matches) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        Account authenticated = new Account(account.getAccount_id(), account.getUsername(),
+                                credentials.getPassword());
+                        if (!passwordHasher.needsRehash(account.getPassword())) {
+                            return CompletableFuture.completedFuture(authenticated);
+                        }
+                        return rehash(account, credentials.getPassword()).thenApply(ignored -> authenticated);
+                    });
+        });
+    }
+
+    public boolean accountExists(int id) {
+        return accountDaoImpl.existsById(id);
+    }
+
+    /**
+     * Answers ids already known in memory right away, and asks the database on the JDBC executor otherwise.
+     */
+    public CompletableFuture<Boolean> accountExistsAsync(int id) {
+        if (accountDaoImpl.isKnownAccountId(id)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return asyncAccountDao.existsById(id);
+    }
+
+    /**
+     * Loads the known account ids and usernames so the first requests don't pay for it.
+     */
+    public void preloadAccounts() {
+        accountDaoImpl.loadKnownAccounts();
+    }
+
+    public CacheStats getAccountCacheStats() {
+        return accountDaoImpl.getAccountCacheStats();
+    }
+
+    public BloomFilter getUsernameFilter() {
+        return accountDaoImpl.getUsernameFilter();
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
     }
 
     public Account findAccountByUsername(String username) {
         return accountDaoImpl.findByName(username);
     }
+
+    /**
+     * Hashes the password on the hashing pool and stores it on the JDBC executor. A failed rehash, or one an executor
+     * turned away, doesn't fail the login; the next login tries again.
+     *
+     * @return a future that completes normally once the rehash is stored or abandoned.
+     */
+    private CompletableFuture<Void> rehash(Account account, String password) {
+        return passwordHasher.hashAsync(password)
+                .thenCompose(passwordHash -> jdbcExecutor.supply(
+                        () -> accountDaoImpl.updatePassword(account, passwordHash)))
+                .handle((updated, e) -> {
+                    if (e != null) {
+                        LOGGER.warn("Cannot rehash password of account {}", account.getAccount_id(),
+                                Futures.unwrap(e));
+                    }
+                    return null;
+                });
+    }
 }
@@ -1,42 +1,286 @@
 package service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import model.Account;
+import model.Author;
 import model.Message;
+import model.MessageWithAuthor;
+import model.MessageCursor;
+import model.Page;
+import cache.CacheStats;
+import dao.AccountDao;
+import dao.MessageDao;
+import dao.async.AsyncAccountDao;
+import dao.async.AsyncMessageDao;
+import dao.impl.AccountDaoImpl;
+import dao.impl.CachingMessageDao;
 import dao.impl.MessageDaoImpl;
+import util.ConnectionUtil;
+import util.Futures;
 
 public class MessageService {
-    private MessageDaoImpl messageDaoImpl;
+    /**
+     * Hard upper bound of a page, whatever limit the client asks for.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    /**
+     * Number of streamed messages whose authors are looked up with one query.
+     */
+    private static final int AUTHOR_CHUNK_SIZE = 256;
+    /**
+     * Authors remembered across chunks of one stream before the memo is cleared.
+     */
+    private static final int MAX_REMEMBERED_AUTHORS = 10_000;
+
+    private MessageDao messageDao;
+    private AccountDao accountDao;
+    private AsyncMessageDao asyncMessageDao;
+    private AsyncAccountDao asyncAccountDao;
 
     public MessageService() {
-        messageDaoImpl = new MessageDaoImpl();
+        this(CachingMessageDao.wrapIfEnabled(new MessageDaoImpl()), new AccountDaoImpl());
+    }
+
+    public MessageService(MessageDao messageDao) {
+        this(messageDao, new AccountDaoImpl());
     }
 
-    public MessageService(MessageDaoImpl messageDaoImpl) {
-        this.messageDaoImpl = messageDaoImpl;
+    public MessageService(MessageDao messageDao, AccountDao accountDao) {
+        this.messageDao = messageDao;
+        this.accountDao = accountDao;
+        this.asyncMessageDao = new AsyncMessageDao(messageDao, ConnectionUtil.getJdbcExecutor());
+        this.asyncAccountDao = new AsyncAccountDao(accountDao, ConnectionUtil.getJdbcExecutor());
     }
 
     public void create(Message message) {
-        messageDaoImpl.create(message);
+        messageDao.create(message);
+    }
+
+    public void createAll(List<Message> messages) {
+        messageDao.createAll(messages);
     }
 
     public List<Message> findAllMessages() {
-        return messageDaoImpl.findAll();
+        return messageDao.findAll();
+    }
+
+    /**
+     * @return every message, read lazily; the caller must close the stream to release its connection.
+     */
+    public Stream<Message> streamAllMessages() {
+        return messageDao.streamAll();
+    }
+
+    /**
+     * @param after cursor returned with the previous page, or null for the first page.
+     * @param limit requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public Page<Message> findMessagesPage(String after, int limit) {
+        MessageCursor cursor = MessageCursor.decode(after);
+        int pageSize = pageSize(limit);
+        return toPage(messageDao.findPage(cursor.getMessageId(), pageSize + 1), pageSize);
+    }
+
+    /**
+     * @param after cursor returned with the previous page, or null for the first page.
+     * @param limit requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public Page<Message> findMessagesPageByAccountId(int accountId, String after, int limit) {
+        MessageCursor cursor = MessageCursor.decode(after);
+        int pageSize = pageSize(limit);
+        return toPage(messageDao.findPageByAccountId(accountId, cursor.getTimePostedEpoch(),
+                cursor.getMessageId(), pageSize + 1), pageSize);
     }
 
     public Message findByMessageId(int id) {
-        return messageDaoImpl.findById(id);
+        return messageDao.findById(id);
     }
 
     public void updateMessage(Message message) {
-        messageDaoImpl.update(message);
+        messageDao.update(message);
+    }
+
+    public Message updateMessageText(int id, String text) {
+        return messageDao.updateTextReturning(id, text);
     }
 
-    public void deleteMessage(int id) {
-        messageDaoImpl.delete(messageDaoImpl.findById(id));
+    public Message deleteMessage(int id) {
+        return messageDao.deleteByIdReturning(id);
     }
 
     public List<Message> findAllMessagesByAccountId(int id) {
-        return messageDaoImpl.findMessagesByAccountId(id);
+        return messageDao.findMessagesByAccountId(id);
+    }
+
+    public CompletableFuture<Message> createAsync(Message message) {
+        return asyncMessageDao.create(message);
+    }
+
+    public CompletableFuture<Message> findByMessageIdAsync(int id) {
+        return asyncMessageDao.findById(id);
+    }
+
+    public CompletableFuture<Message> updateMessageTextAsync(int id, String text) {
+        return asyncMessageDao.updateTextReturning(id, text);
+    }
+
+    public CompletableFuture<Message> deleteMessageAsync(int id) {
+        return asyncMessageDao.deleteByIdReturning(id);
+    }
+
+    public CompletableFuture<List<Message>> findAllMessagesByAccountIdAsync(int accountId) {
+        return asyncMessageDao.findMessagesByAccountId(accountId);
+    }
+
+    /**
+     * Every message of the account has the same author, so the author is looked up in parallel with the messages.
+     */
+    public CompletableFuture<List<MessageWithAuthor>> findAllMessagesWithAuthorByAccountIdAsync(int accountId) {
+        return Futures.both(asyncMessageDao.findMessagesByAccountId(accountId), findAuthorAsync(accountId),
+                MessageService::withAuthor);
+    }
+
+    /**
+     * @param after cursor returned with the previous page, or null for the first page.
+     * @param limit requested page size, capped at {@link #MAX_PAGE_SIZE}.
+     * @throws IllegalArgumentException right away if the cursor or limit is invalid.
+     */
+    public CompletableFuture<Page<Message>> findMessagesPageByAccountIdAsync(int accountId, String after, int limit) {
+        MessageCursor cursor = MessageCursor.decode(after);
+        int pageSize = pageSize(limit);
+        return asyncMessageDao.findPageByAccountId(accountId, cursor.getTimePostedEpoch(), cursor.getMessageId(),
+                pageSize + 1).thenApply(rows -> toPage(rows, pageSize));
+    }
+
+    /**
+     * Looks the page and its author up in parallel.
+     *
+     * @throws IllegalArgumentException right away if the cursor or limit is invalid.
+     */
+    public CompletableFuture<Page<MessageWithAuthor>> findMessagesPageWithAuthorByAccountIdAsync(
+            int accountId, String after, int limit) {
+        return Futures.both(findMessagesPageByAccountIdAsync(accountId, after, limit), findAuthorAsync(accountId),
+                (page, author) -> new Page<>(withAuthor(page.getItems(), author), page.getNext_cursor()));
+    }
+
+    /**
+     * Attaches the author to every message, looking all distinct authors up with a single query.
+     */
+    public List<MessageWithAuthor> withAuthors(List<Message> messages) {
+        Map<Integer, Author> authors = new HashMap<>();
+        findAuthors(messages, authors);
+        List<MessageWithAuthor> expanded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            expanded.add(new MessageWithAuthor(message, authors.get(message.getPosted_by())));
+        }
+        return expanded;
+    }
+
+    public Page<MessageWithAuthor> withAuthors(Page<Message> page) {
+        return new Page<>(withAuthors(page.getItems()), page.getNext_cursor());
+    }
+
+    /**
+     * Attaches the author to every streamed message, one query per {@value #AUTHOR_CHUNK_SIZE} messages for the
+     * authors not seen earlier in the stream. Closing the returned stream closes the given one.
+     */
+    public Stream<MessageWithAuthor> withAuthors(Stream<Message> messages) {
+        Iterator<Message> source = messages.iterator();
+        Map<Integer, Author> authors = new HashMap<>();
+        Iterator<List<MessageWithAuthor>> chunks = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<MessageWithAuthor> next() {
+                List<Message> chunk = new ArrayList<>(AUTHOR_CHUNK_SIZE);
+                while (chunk.size() < AUTHOR_CHUNK_SIZE && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                if (authors.size() > MAX_REMEMBERED_AUTHORS) {
+                    authors.clear();
+                }
+                findAuthors(chunk, authors);
+                List<MessageWithAuthor> expanded = new ArrayList<>(chunk.size());
+                for (Message message : chunk) {
+                    expanded.add(new MessageWithAuthor(message, authors.get(message.getPosted_by())));
+                }
+                return expanded;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED), false)
+                .flatMap(List::stream)
+                .onClose(messages::close);
+    }
+
+    /**
+     * @return counters of the message cache, or {@code null} if caching is disabled.
+     */
+    public CacheStats getMessageCacheStats() {
+        return messageDao instanceof CachingMessageDao ? ((CachingMessageDao) messageDao).getStats() : null;
+    }
+
+    private CompletableFuture<Author> findAuthorAsync(int accountId) {
+        return asyncAccountDao.findByIds(List.of(accountId)).thenApply(accounts -> accounts.isEmpty() ? null
+                : new Author(accounts.get(0).getAccount_id(), accounts.get(0).getUsername()));
+    }
+
+    private static List<MessageWithAuthor> withAuthor(List<Message> messages, Author author) {
+        List<MessageWithAuthor> expanded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            expanded.add(new MessageWithAuthor(message, author));
+        }
+        return expanded;
+    }
+
+    /**
+     * Adds the authors of the messages that are not in {@code authors} yet, with at most one query.
+     */
+    private void findAuthors(List<Message> messages, Map<Integer, Author> authors) {
+        Set<Integer> missing = new HashSet<>();
+        for (Message message : messages) {
+            if (!authors.containsKey(message.getPosted_by())) {
+                missing.add(message.getPosted_by());
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        for (Account account : accountDao.findByIds(missing)) {
+            authors.put(account.getAccount_id(), new Author(account.getAccount_id(), account.getUsername()));
+        }
+    }
+
+    private static int pageSize(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Rows are fetched one beyond the page size, so a full extra row tells whether a next page exists.
+     */
+    private static Page<Message> toPage(List<Message> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<Message> items = rows.subList(0, pageSize);
+        return new Page<>(items, MessageCursor.after(items.get(pageSize - 1)).encode());
     }
 }
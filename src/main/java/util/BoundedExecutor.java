@@ -0,0 +1,76 @@
+package util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fixed number of daemon threads in front of a bounded queue, for work that must not grow without limit.
+ * <p>
+ * When every thread is busy and the queue is full, {@link #supply(Supplier)} returns a future already failed with
+ * {@link RejectedExecutionException}, so callers can shed the load instead of waiting. Idle threads exit after
+ * thirty seconds.
+ */
+public class BoundedExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param name      prefix of the thread names.
+     * @param threads   maximum number of tasks running at the same time.
+     * @param queueSize maximum number of tasks waiting for a thread.
+     */
+    public BoundedExecutor(String name, int threads, int queueSize) {
+        if (threads < 1 || queueSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid executor settings for %s: threads=%d, queueSize=%d", name, threads, queueSize));
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return number of tasks turned away because every thread was busy and the queue was full.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getMaxThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,13 +1,20 @@
 package util;
 
-import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.h2.jdbcx.JdbcDataSource;
 import org.h2.tools.RunScript;
 
+import exception.DaoException;
+import util.pool.ConnectionPool;
+import util.pool.PoolConfig;
+import util.pool.PoolStats;
+import util.pool.StatementMetrics;
+
 /**
  * The ConnectionUtil class will be utilized to create an active connection to
  * our database. This class utilizes the singleton design pattern. We will be
@@ -30,42 +37,147 @@ public class ConnectionUtil {
     private static String password = "sa";
 
     /**
-     * DataSource for pooling.
-	 * Pooling enables the creation of multiple connections when connections are closed.
+     * DataSource that opens the physical connections; it does not pool them by itself.
      */
-    private static JdbcDataSource pool = new JdbcDataSource();
+    private static JdbcDataSource dataSource = new JdbcDataSource();
 
-    //static initialization block to establish credentials for DataSource Pool
+    //static initialization block to establish credentials for the DataSource
     static {
-        pool.setURL(url);
-        pool.setUser(username);
-        pool.setPassword(password);
+        dataSource.setURL(url);
+        dataSource.setUser(username);
+        dataSource.setPassword(password);
     }
 
+    /**
+     * Bounded pool of connections opened by the DataSource.
+     * Closing a connection returns it to the pool instead of closing the physical connection.
+     */
+    private static volatile ConnectionPool pool;
+
+    /**
+     * Runs blocking JDBC work for the async DAOs. It has as many threads as the pool has connections, so queued
+     * work waits in its bounded queue rather than on the pool.
+     */
+    private static volatile BoundedExecutor jdbcExecutor;
+
+    private static final Object LOCK = new Object();
+
     /**
      * @return an active connection to the database
+     * @throws DaoException if no connection becomes available within the pool's acquire timeout
      */
     public static Connection getConnection() {
         try {
-            return pool.getConnection();
+            return pool().getConnection();
         } catch (SQLException e) {
-            e.printStackTrace();
+            throw new DaoException("Cannot obtain a database connection", e);
         }
+    }
 
-        return null;
+    /**
+     * @return live counters of the connection pool (active, idle, waiters, acquire time).
+     */
+    public static PoolStats getPoolStats() {
+        return pool().getStats();
+    }
+
+    /**
+     * @return execution time, rows fetched and errors per SQL text, or {@code null} if statement metrics are disabled.
+     */
+    public static StatementMetrics getStatementMetrics() {
+        return pool().getStatementMetrics();
+    }
+
+    /**
+     * @return the executor that async DAO calls run on.
+     */
+    public static BoundedExecutor getJdbcExecutor() {
+        BoundedExecutor current = jdbcExecutor;
+        if (current == null) {
+            synchronized (LOCK) {
+                open();
+                current = jdbcExecutor;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Stops the JDBC executor and closes the pool with its housekeeper, in the reverse order they were opened.
+     * Work already queued on the executor still runs. The next use of this class opens a new pool and executor.
+     */
+    public static void shutdown() {
+        synchronized (LOCK) {
+            if (pool == null) {
+                return;
+            }
+            jdbcExecutor.close();
+            pool.close();
+            jdbcExecutor = null;
+            pool = null;
+        }
+    }
+
+    /**
+     * Opens the pool's minimum number of connections now, rather than on the first requests.
+     */
+    public static void warmUpPool() {
+        pool().warmUp();
+    }
+
+    private static ConnectionPool pool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (LOCK) {
+                open();
+                current = pool;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Opens the pool, then the executor sized after it, unless they are open already. Callers hold {@link #LOCK}.
+     */
+    private static void open() {
+        if (pool != null) {
+            return;
+        }
+        ConnectionPool opened = new ConnectionPool(dataSource, PoolConfig.fromSystemProperties());
+        jdbcExecutor = new BoundedExecutor("jdbc",
+                Integer.getInteger("db.async.threads", opened.getConfig().getMaxSize()),
+                Integer.getInteger("db.async.queueSize", 1024));
+        pool = opened;
+    }
+
+    /**
+     * Applies pending schema migrations; a no-op once the recorded schema version is current.
+     * This is performed once at application startup.
+     */
+    public static void migrateDatabase() {
+        try (Connection connection = getConnection()) {
+            SchemaMigrator.migrate(connection);
+        } catch (SQLException e) {
+            throw new DaoException("Cannot migrate database schema", e);
+        }
     }
 
     /**
      * For the purpose of testing, we will need to drop and recreate our database
      * tables to keep it consistent across all tests.
-	 * The method will read the sql file in resources.
+	 * The method drops every object, migrates the empty database to the latest schema
+	 * and loads the test data from the sql file in resources.
 	 * This will be performed before every test.
      */
     public static void resetTestDatabase() {
-        try {
-            FileReader sqlReader = new FileReader("src/main/resources/SocialMedia.sql");
-            RunScript.execute(getConnection(), sqlReader);
-        } catch (SQLException | FileNotFoundException e) {
+        try (Connection connection = getConnection();
+             FileReader sqlReader = new FileReader("src/main/resources/SocialMedia.sql")) {
+            try (PreparedStatement preparedStatement = connection.prepareStatement("DROP ALL OBJECTS")) {
+                preparedStatement.execute();
+            }
+            SchemaMigrator.migrate(connection);
+            RunScript.execute(connection, sqlReader);
+        } catch (SQLException | IOException e) {
             e.printStackTrace();
         }
     }
@@ -0,0 +1,59 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+
+/**
+ * Helpers for composing independent asynchronous lookups.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for two lookups that were started independently, so they run in parallel, and combines their results.
+     */
+    public static <A, B, R> CompletableFuture<R> both(CompletableFuture<A> first, CompletableFuture<B> second,
+                                                     BiFunction<? super A, ? super B, ? extends R> combiner) {
+        return first.thenCombine(second, combiner);
+    }
+
+    /**
+     * @return a future of all results in the order of the given futures, failed as soon as any of them fails.
+     */
+    public static <T> CompletableFuture<List<T>> all(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> result = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    List<T> values = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        values.add(future.join());
+                    }
+                    return values;
+                });
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    result.completeExceptionally(unwrap(failure));
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * @return the exception that actually failed a stage, without the wrappers added by composition.
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,103 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.h2.tools.RunScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import exception.DaoException;
+
+/**
+ * Applies the versioned SQL scripts found in {@code db/migration} on the classpath.
+ * <p>
+ * Every applied script is recorded in the {@code schema_version} table, so running the migrator again (e.g. on
+ * each startup) only applies scripts added since, and does nothing once the schema is current.
+ */
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    /**
+     * Migration scripts in the order they must be applied. New scripts are appended, never edited once released.
+     */
+    private static final List<String> MIGRATIONS = List.of(
+            "V1__create_tables.sql",
+            "V2__add_message_indexes.sql");
+
+    private static final String MIGRATION_PATH = "db/migration/";
+    private static final String CREATE_VERSION_TABLE_QUERY = "CREATE TABLE IF NOT EXISTS schema_version ("
+            + "version INT PRIMARY KEY, script VARCHAR(255) NOT NULL, installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String FIND_CURRENT_VERSION_QUERY = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+    private static final String RECORD_VERSION_QUERY = "INSERT INTO schema_version (version, script) VALUES (?, ?)";
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    /**
+     * Brings the schema behind the connection up to the latest version.
+     *
+     * @return the schema version after migrating.
+     */
+    public static int migrate(Connection connection) {
+        LOCK.lock();
+        try {
+            try (PreparedStatement preparedStatement = connection.prepareStatement(CREATE_VERSION_TABLE_QUERY)) {
+                preparedStatement.execute();
+            }
+            int current = currentVersion(connection);
+            for (int version = current + 1; version <= MIGRATIONS.size(); version++) {
+                apply(connection, version, MIGRATIONS.get(version - 1));
+            }
+            return MIGRATIONS.size();
+        } catch (SQLException | IOException e) {
+            throw new DaoException("Cannot migrate database schema", e);
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    public static int latestVersion() {
+        return MIGRATIONS.size();
+    }
+
+    public static int currentVersion(Connection connection) throws SQLException {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(FIND_CURRENT_VERSION_QUERY);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void apply(Connection connection, int version, String script) throws SQLException, IOException {
+        InputStream inputStream = SchemaMigrator.class.getClassLoader().getResourceAsStream(MIGRATION_PATH + script);
+        if (inputStream == null) {
+            throw new IOException("Migration script not found on classpath: " + MIGRATION_PATH + script);
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             PreparedStatement preparedStatement = connection.prepareStatement(RECORD_VERSION_QUERY)) {
+            RunScript.execute(connection, reader);
+            preparedStatement.setInt(1, version);
+            preparedStatement.setString(2, script);
+            preparedStatement.executeUpdate();
+            connection.commit();
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        LOGGER.info("Applied schema migration {} ({})", version, script);
+    }
+}
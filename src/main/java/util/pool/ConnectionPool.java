@@ -0,0 +1,335 @@
+package util.pool;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import metrics.Histogram;
+
+/**
+ * Bounded pool of physical connections created by a {@link DataSource}.
+ * <p>
+ * Idle connections are reused most-recently-used first, so the pool shrinks naturally to the working set and the
+ * housekeeper can evict the oldest ones. Borrowers block for at most the configured acquire timeout.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final DataSource dataSource;
+    private final PoolConfig config;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private int total;
+    private int waiters;
+    private boolean closed;
+
+    private final Histogram acquireTime = new Histogram();
+    private final Histogram holdTime = new Histogram();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaksDetected = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsClosed = new LongAdder();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final StatementMetrics statementMetrics;
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(DataSource dataSource, PoolConfig config) {
+        this.dataSource = dataSource;
+        this.config = config;
+        this.statementMetrics = config.isStatementMetricsEnabled()
+                ? new StatementMetrics(config.getSlowStatementThresholdMillis())
+                : null;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHousekeepingPeriodMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if the pool is below its maximum size.
+     *
+     * @return a connection whose {@code close()} returns it to the pool.
+     * @throws SQLTimeoutException if no connection became available within the acquire timeout.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.getAcquireTimeoutMillis());
+        while (true) {
+            PooledConnection candidate = takeIdleOrReserve(deadline);
+            if (candidate == null) {
+                candidate = open();
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+            candidate.borrow(config.getLeakDetectionThresholdMillis() > 0);
+            borrowed.add(candidate);
+            acquireTime.record(System.nanoTime() - start);
+            return candidate.proxy();
+        }
+    }
+
+    /**
+     * @return an idle connection, or {@code null} if a slot was reserved for the caller to open a new one.
+     */
+    private PooledConnection takeIdleOrReserve(long deadline) throws SQLException {
+        lock.lock();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                PooledConnection connection = idle.pollFirst();
+                if (connection != null) {
+                    return connection;
+                }
+                if (total < config.getMaxSize()) {
+                    total++;
+                    return null;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts.increment();
+                    throw new SQLTimeoutException(String.format(
+                            "Timed out after %d ms waiting for a connection (active=%d, max=%d)",
+                            config.getAcquireTimeoutMillis(), borrowed.size(), config.getMaxSize()));
+                }
+                waiters++;
+                try {
+                    available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", e);
+                } finally {
+                    waiters--;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a physical connection for a slot already reserved in {@link #total}.
+     */
+    private PooledConnection open() throws SQLException {
+        try {
+            PooledConnection connection = new PooledConnection(this, dataSource.getConnection(),
+                    config.getStatementCacheSize(), statementCounters, statementMetrics);
+            connectionsCreated.increment();
+            return connection;
+        } catch (SQLException | RuntimeException e) {
+            freeSlot();
+            throw e;
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        long idleNanos = System.nanoTime() - connection.lastUsedNanos();
+        if (idleNanos < TimeUnit.MILLISECONDS.toNanos(config.getValidationIntervalMillis())) {
+            return true;
+        }
+        try {
+            return connection.physical().isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void release(PooledConnection connection) {
+        borrowed.remove(connection);
+        holdTime.record(System.nanoTime() - connection.borrowedAtNanos());
+        try {
+            connection.reset();
+        } catch (SQLException e) {
+            LOGGER.warn("Discarding connection that could not be reset: {}", e.getMessage());
+            discard(connection);
+            return;
+        }
+        lock.lock();
+        try {
+            if (!closed) {
+                idle.offerFirst(connection);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(connection);
+    }
+
+    private void discard(PooledConnection connection) {
+        connection.closePhysical();
+        connectionsClosed.increment();
+        freeSlot();
+    }
+
+    private void freeSlot() {
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts idle connections past the idle timeout, tops the pool up to its minimum size and reports leaks.
+     */
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void evictIdle() {
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+        long now = System.nanoTime();
+        List<PooledConnection> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && total - evicted.size() > config.getMinSize()) {
+                PooledConnection connection = oldestFirst.next();
+                if (now - connection.lastUsedNanos() < idleTimeoutNanos) {
+                    break;
+                }
+                oldestFirst.remove();
+                evicted.add(connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+        evicted.forEach(this::discard);
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || total >= config.getMinSize()) {
+                    return;
+                }
+                total++;
+            } finally {
+                lock.unlock();
+            }
+            PooledConnection connection;
+            try {
+                connection = open();
+            } catch (SQLException e) {
+                LOGGER.warn("Cannot open connection to reach minimum pool size: {}", e.getMessage());
+                return;
+            }
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.offerLast(connection);
+                    available.signal();
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+            discard(connection);
+            return;
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (PooledConnection connection : borrowed) {
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - connection.borrowedAtNanos());
+            if (heldMillis > threshold && connection.markLeakReported()) {
+                leaksDetected.increment();
+                LOGGER.warn("Connection held for {} ms without being returned, possible leak", heldMillis,
+                        connection.borrowTrace());
+            }
+        }
+    }
+
+    /**
+     * Opens connections until the pool holds its configured minimum, so the first requests don't pay for them.
+     */
+    public void warmUp() {
+        fillToMinimum();
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(borrowed.size(), idle.size(), total, waiters, config.getMaxSize(),
+                    timeouts.sum(), leaksDetected.sum(), connectionsCreated.sum(), connectionsClosed.sum(),
+                    acquireTime, holdTime, statementCounters.hits.sum(), statementCounters.misses.sum(),
+                    statementCounters.evictions.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return execution counters of the prepared statements, or {@code null} if statement metrics are disabled.
+     */
+    public StatementMetrics getStatementMetrics() {
+        return statementMetrics;
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes idle connections and stops handing out new ones; borrowed connections are closed when returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        toClose.forEach(this::discard);
+    }
+}
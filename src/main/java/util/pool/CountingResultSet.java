@@ -0,0 +1,60 @@
+package util.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+
+/**
+ * Counts the rows a caller reads from a result set, and adds them to the statement's counters once the result set
+ * is exhausted or closed.
+ */
+class CountingResultSet implements InvocationHandler {
+
+    private final ResultSet resultSet;
+    private final SqlStats stats;
+    private long rows;
+    private boolean reported;
+
+    CountingResultSet(ResultSet resultSet, SqlStats stats) {
+        this.resultSet = resultSet;
+        this.stats = stats;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "next":
+                boolean hasRow = resultSet.next();
+                if (hasRow) {
+                    rows++;
+                } else {
+                    report();
+                }
+                return hasRow;
+            case "close":
+                report();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "CountingResultSet[" + resultSet + "]";
+            default:
+                break;
+        }
+        try {
+            return method.invoke(resultSet, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void report() {
+        if (!reported) {
+            reported = true;
+            stats.addRowsFetched(rows);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package util.pool;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Times the {@code execute*} calls of one prepared statement and remembers its bound parameters until they are
+ * cleared, so a slow execution can be logged with their types.
+ */
+class InstrumentedStatement implements InvocationHandler {
+
+    private static final Object NULL_PARAMETER = new Object();
+
+    private final StatementMetrics metrics;
+    private final PreparedStatement statement;
+    private final SqlStats stats;
+    private final Connection owner;
+    private Object[] parameters = new Object[4];
+    private int parameterCount;
+
+    InstrumentedStatement(StatementMetrics metrics, PreparedStatement statement, SqlStats stats, Connection owner) {
+        this.metrics = metrics;
+        this.statement = statement;
+        this.stats = stats;
+        this.owner = owner;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (name.startsWith("execute")) {
+            return execute(method, args);
+        }
+        switch (name) {
+            case "getConnection":
+                return owner;
+            case "getResultSet":
+                ResultSet resultSet = (ResultSet) invokeStatement(method, args);
+                return resultSet == null ? null : metrics.countRows(resultSet, stats);
+            case "clearParameters":
+                Arrays.fill(parameters, 0, parameterCount, null);
+                parameterCount = 0;
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "InstrumentedStatement[" + statement + "]";
+            default:
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bind((Integer) args[0], name.equals("setNull") ? NULL_PARAMETER : args[1]);
+                }
+                break;
+        }
+        return invokeStatement(method, args);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invokeStatement(method, args);
+            failed = false;
+            return result instanceof ResultSet ? metrics.countRows((ResultSet) result, stats) : result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            boolean slow = metrics.isSlow(nanos);
+            stats.recordExecution(nanos, failed, slow);
+            if (slow) {
+                metrics.logSlow(stats, nanos, describeParameters());
+            }
+        }
+    }
+
+    private Object invokeStatement(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void bind(int index, Object value) {
+        if (index < 1 || index > 1024) {
+            return;
+        }
+        if (index > parameters.length) {
+            parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+        }
+        parameters[index - 1] = value == null ? NULL_PARAMETER : value;
+        parameterCount = Math.max(parameterCount, index);
+    }
+
+    /**
+     * @return the types of the bound parameters, with the length of strings and arrays, e.g. {@code [VARCHAR(12)]}.
+     */
+    private String describeParameters() {
+        StringJoiner types = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < parameterCount; i++) {
+            types.add(describe(parameters[i]));
+        }
+        return types.toString();
+    }
+
+    private static String describe(Object value) {
+        if (value == null) {
+            return "UNSET";
+        }
+        if (value == NULL_PARAMETER) {
+            return "NULL";
+        }
+        if (value instanceof CharSequence) {
+            return "VARCHAR(" + ((CharSequence) value).length() + ")";
+        }
+        if (value.getClass().isArray()) {
+            return value.getClass().getComponentType().getSimpleName().toUpperCase() + "[" + Array.getLength(value)
+                    + "]";
+        }
+        return value.getClass().getSimpleName().toUpperCase();
+    }
+}
@@ -0,0 +1,130 @@
+package util.pool;
+
+/**
+ * Sizing and timing settings of the {@link ConnectionPool}.
+ * Every value can be overridden with a system property, e.g. {@code -Ddb.pool.maxSize=20}.
+ */
+public class PoolConfig {
+
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validationIntervalMillis;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMillis;
+    private final long housekeepingPeriodMillis;
+    private final int statementCacheSize;
+    private final boolean statementMetricsEnabled;
+    private final long slowStatementThresholdMillis;
+
+    public PoolConfig(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+                      long validationIntervalMillis, int validationTimeoutSeconds,
+                      long leakDetectionThresholdMillis, long housekeepingPeriodMillis, int statementCacheSize) {
+        this(minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis, validationIntervalMillis,
+                validationTimeoutSeconds, leakDetectionThresholdMillis, housekeepingPeriodMillis, statementCacheSize,
+                true, 250);
+    }
+
+    public PoolConfig(int minSize, int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis,
+                      long validationIntervalMillis, int validationTimeoutSeconds,
+                      long leakDetectionThresholdMillis, long housekeepingPeriodMillis, int statementCacheSize,
+                      boolean statementMetricsEnabled, long slowStatementThresholdMillis) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid pool size: min=%d, max=%d", minSize, maxSize));
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.statementMetricsEnabled = statementMetricsEnabled;
+        this.slowStatementThresholdMillis = slowStatementThresholdMillis;
+    }
+
+    /**
+     * @return configuration read from {@code db.pool.*} system properties, falling back to defaults.
+     */
+    public static PoolConfig fromSystemProperties() {
+        return new PoolConfig(
+                Integer.getInteger("db.pool.minSize", 2),
+                Integer.getInteger("db.pool.maxSize", 10),
+                Long.getLong("db.pool.acquireTimeoutMillis", 5_000L),
+                Long.getLong("db.pool.idleTimeoutMillis", 600_000L),
+                Long.getLong("db.pool.validationIntervalMillis", 1_000L),
+                Integer.getInteger("db.pool.validationTimeoutSeconds", 2),
+                Long.getLong("db.pool.leakDetectionThresholdMillis", 0L),
+                Long.getLong("db.pool.housekeepingPeriodMillis", 5_000L),
+                Integer.getInteger("db.pool.statementCacheSize", 32),
+                Boolean.parseBoolean(System.getProperty("db.pool.statementMetrics", "true")),
+                Long.getLong("db.pool.slowStatementThresholdMillis", 250L));
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    /**
+     * Connections idle for longer than this are closed, as long as the pool stays at or above its minimum size.
+     */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    /**
+     * Connections idle for longer than this are checked with {@link java.sql.Connection#isValid(int)} before reuse.
+     */
+    public long getValidationIntervalMillis() {
+        return validationIntervalMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    /**
+     * A borrowed connection held for longer than this is reported together with the borrower's stack trace.
+     * Zero disables leak detection and the stack capture it needs on every borrow.
+     */
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    /**
+     * Maximum number of prepared statements cached per connection. Zero disables the cache.
+     */
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * Whether prepared statement executions are timed and their rows counted, see {@link StatementMetrics}.
+     */
+    public boolean isStatementMetricsEnabled() {
+        return statementMetricsEnabled;
+    }
+
+    /**
+     * Executions slower than this are logged with their parameter types. A negative value disables the log.
+     */
+    public long getSlowStatementThresholdMillis() {
+        return slowStatementThresholdMillis;
+    }
+}
@@ -0,0 +1,120 @@
+package util.pool;
+
+import metrics.Histogram;
+
+/**
+ * Point-in-time view of the {@link ConnectionPool} counters.
+ */
+public class PoolStats {
+
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int waiters;
+    private final int maxSize;
+    private final long timeouts;
+    private final long leaksDetected;
+    private final long connectionsCreated;
+    private final long connectionsClosed;
+    private final Histogram acquireTime;
+    private final Histogram holdTime;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+
+    PoolStats(int active, int idle, int total, int waiters, int maxSize, long timeouts, long leaksDetected,
+              long connectionsCreated, long connectionsClosed, Histogram acquireTime, Histogram holdTime,
+              long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.waiters = waiters;
+        this.maxSize = maxSize;
+        this.timeouts = timeouts;
+        this.leaksDetected = leaksDetected;
+        this.connectionsCreated = connectionsCreated;
+        this.connectionsClosed = connectionsClosed;
+        this.acquireTime = acquireTime;
+        this.holdTime = holdTime;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getWaiters() {
+        return waiters;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getLeaksDetected() {
+        return leaksDetected;
+    }
+
+    public long getConnectionsCreated() {
+        return connectionsCreated;
+    }
+
+    public long getConnectionsClosed() {
+        return connectionsClosed;
+    }
+
+    /**
+     * @return the live histogram of time spent waiting in {@link ConnectionPool#getConnection()}.
+     */
+    public Histogram getAcquireTime() {
+        return acquireTime;
+    }
+
+    /**
+     * @return the live histogram of time between borrowing a connection and returning it to the pool.
+     */
+    public Histogram getHoldTime() {
+        return holdTime;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", total=" + total +
+                ", waiters=" + waiters +
+                ", maxSize=" + maxSize +
+                ", timeouts=" + timeouts +
+                ", leaksDetected=" + leaksDetected +
+                ", statementCacheHits=" + statementCacheHits +
+                ", statementCacheMisses=" + statementCacheMisses +
+                '}';
+    }
+}
@@ -0,0 +1,167 @@
+package util.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A physical connection owned by the {@link ConnectionPool}.
+ * Callers only ever see {@link #proxy()}, whose {@code close()} hands the connection back to the pool.
+ */
+class PooledConnection implements InvocationHandler {
+
+    /**
+     * H2 keeps lazy query execution per session. A borrower that turns it on, such as a streaming query, must not
+     * hand the setting on to the next borrower, so it is turned off on every release.
+     */
+    private static final String RESET_LAZY_QUERY = "SET LAZY_QUERY_EXECUTION FALSE";
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final Connection proxy;
+    private final StatementCache statementCache;
+    private final StatementMetrics statementMetrics;
+    private final AtomicBoolean checkedOut = new AtomicBoolean();
+    private volatile long lastUsedNanos;
+    private volatile long borrowedAtNanos;
+    private volatile Throwable borrowTrace;
+    private volatile boolean leakReported;
+    private PreparedStatement resetLazyQuery;
+
+    /**
+     * @param statementMetrics records the executions of prepared statements, or {@code null} to not record them.
+     */
+    PooledConnection(ConnectionPool pool, Connection physical, int statementCacheSize,
+                     StatementCache.Counters statementCounters, StatementMetrics statementMetrics) {
+        this.pool = pool;
+        this.physical = physical;
+        this.proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        this.statementMetrics = statementMetrics;
+        this.statementCache = statementCacheSize > 0
+                ? new StatementCache(physical, proxy, statementCacheSize, statementCounters, statementMetrics)
+                : null;
+        this.lastUsedNanos = System.nanoTime();
+    }
+
+    Connection proxy() {
+        return proxy;
+    }
+
+    Connection physical() {
+        return physical;
+    }
+
+    void borrow(boolean captureTrace) {
+        borrowedAtNanos = System.nanoTime();
+        borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+        leakReported = false;
+        checkedOut.set(true);
+    }
+
+    /**
+     * Restores the defaults a borrower may have changed so the next borrower starts clean. If this fails the pool
+     * discards the connection rather than hand out a session in an unknown state.
+     */
+    void reset() throws SQLException {
+        if (statementCache != null) {
+            statementCache.releaseAll();
+        }
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (resetLazyQuery == null) {
+            resetLazyQuery = physical.prepareStatement(RESET_LAZY_QUERY);
+        }
+        resetLazyQuery.execute();
+        physical.clearWarnings();
+        lastUsedNanos = System.nanoTime();
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    long borrowedAtNanos() {
+        return borrowedAtNanos;
+    }
+
+    Throwable borrowTrace() {
+        return borrowTrace;
+    }
+
+    boolean markLeakReported() {
+        if (leakReported) {
+            return false;
+        }
+        leakReported = true;
+        return true;
+    }
+
+    void closePhysical() {
+        if (statementCache != null) {
+            statementCache.clear();
+        }
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // the connection is being discarded anyway
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (checkedOut.compareAndSet(true, false)) {
+                    pool.release(this);
+                }
+                return null;
+            case "isClosed":
+                return !checkedOut.get() || physical.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + physical + "]";
+            default:
+                break;
+        }
+        if (!checkedOut.get()) {
+            throw new SQLException("Connection has already been returned to the pool");
+        }
+        if (statementCache != null && isCacheablePrepare(method)) {
+            int autoGeneratedKeys = args.length > 1 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+            return statementCache.prepare((String) args[0], autoGeneratedKeys);
+        }
+        Object result;
+        try {
+            result = method.invoke(physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (statementMetrics != null && method.getName().equals("prepareStatement")) {
+            return statementMetrics.instrument((PreparedStatement) result, (String) args[0], this.proxy);
+        }
+        return result;
+    }
+
+    /**
+     * Only {@code prepareStatement(String)} and {@code prepareStatement(String, int autoGeneratedKeys)} are cached.
+     */
+    private static boolean isCacheablePrepare(Method method) {
+        if (!method.getName().equals("prepareStatement")) {
+            return false;
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return parameterTypes.length == 1 || (parameterTypes.length == 2 && parameterTypes[1] == int.class);
+    }
+}
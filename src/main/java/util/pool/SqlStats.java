@@ -0,0 +1,68 @@
+package util.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.Histogram;
+
+/**
+ * Execution counters of one SQL statement text, shared by every connection of a pool.
+ */
+public class SqlStats {
+
+    private final String sql;
+    private final Histogram executionTime = new Histogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder slowExecutions = new LongAdder();
+
+    SqlStats(String sql) {
+        this.sql = sql;
+    }
+
+    void recordExecution(long nanos, boolean failed, boolean slow) {
+        executionTime.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (slow) {
+            slowExecutions.increment();
+        }
+    }
+
+    void addRowsFetched(long rows) {
+        rowsFetched.add(rows);
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return time spent in {@code execute*} calls; reading the rows of a result set is not included.
+     */
+    public Histogram getExecutionTime() {
+        return executionTime;
+    }
+
+    public long getExecutions() {
+        return executionTime.count();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return rows read with {@code ResultSet.next()} from the statement's results.
+     */
+    public long getRowsFetched() {
+        return rowsFetched.sum();
+    }
+
+    /**
+     * @return executions that took longer than the slow statement threshold.
+     */
+    public long getSlowExecutions() {
+        return slowExecutions.sum();
+    }
+}
@@ -0,0 +1,203 @@
+package util.pool;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements belonging to one pooled connection, keyed by SQL text and generated-keys flag.
+ * <p>
+ * A connection is used by one borrower at a time, so the cache needs no locking. Statements handed out are proxies
+ * whose {@code close()} clears the parameters and keeps the statement for the next borrower. If the same SQL is
+ * prepared again while its cached statement is still open, an uncached statement is returned instead. A statement
+ * evicted while its borrower still holds it stays open until the borrower closes it, and is then closed for good.
+ */
+class StatementCache {
+
+    /**
+     * Hit, miss and eviction counters shared by the caches of every connection in a pool.
+     */
+    static class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    private final Connection physical;
+    private final Connection owner;
+    private final Counters counters;
+    private final StatementMetrics statementMetrics;
+    private final Map<Key, CachedStatement> statements;
+    /**
+     * Statements evicted while in use, closed once their borrower closes them or the connection is returned.
+     */
+    private final List<CachedStatement> evictedInUse = new ArrayList<>();
+
+    /**
+     * @param statementMetrics records the executions of the cached statements, or {@code null} to not record them.
+     */
+    StatementCache(Connection physical, Connection owner, int maxSize, Counters counters,
+                   StatementMetrics statementMetrics) {
+        this.physical = physical;
+        this.owner = owner;
+        this.counters = counters;
+        this.statementMetrics = statementMetrics;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                counters.evictions.increment();
+                CachedStatement evicted = eldest.getValue();
+                if (evicted.inUse) {
+                    evicted.evicted = true;
+                    evictedInUse.add(evicted);
+                } else {
+                    evicted.closePhysical();
+                }
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        Key key = new Key(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached == null) {
+            counters.misses.increment();
+            cached = new CachedStatement(instrument(physical.prepareStatement(sql, autoGeneratedKeys), sql));
+            statements.put(key, cached);
+        } else if (cached.inUse) {
+            counters.misses.increment();
+            return instrument(physical.prepareStatement(sql, autoGeneratedKeys), sql);
+        } else {
+            counters.hits.increment();
+        }
+        cached.inUse = true;
+        return cached.proxy;
+    }
+
+    private PreparedStatement instrument(PreparedStatement statement, String sql) {
+        return statementMetrics == null ? statement : statementMetrics.instrument(statement, sql, owner);
+    }
+
+    /**
+     * Releases statements the borrower forgot to close so the next borrower can reuse them.
+     */
+    void releaseAll() throws SQLException {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.release();
+            }
+        }
+        List<CachedStatement> evicted = new ArrayList<>(evictedInUse);
+        for (CachedStatement cached : evicted) {
+            cached.release();
+        }
+    }
+
+    void clear() {
+        List<CachedStatement> all = new ArrayList<>(statements.values());
+        all.addAll(evictedInUse);
+        statements.clear();
+        evictedInUse.clear();
+        all.forEach(CachedStatement::closePhysical);
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        private Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return autoGeneratedKeys == key.autoGeneratedKeys && sql.equals(key.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+
+    private final class CachedStatement implements InvocationHandler {
+        private final PreparedStatement statement;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        private void release() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                evictedInUse.remove(this);
+                closePhysical();
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+        }
+
+        private void closePhysical() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // the statement is being discarded anyway
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + statement + "]";
+                default:
+                    break;
+            }
+            if (!inUse) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
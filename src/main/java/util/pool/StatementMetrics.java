@@ -0,0 +1,91 @@
+package util.pool;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times every execution of the prepared statements of a pool by SQL text, counts the rows read from their results,
+ * and logs executions slower than the configured threshold.
+ * <p>
+ * A slow statement is logged with the types of its bound parameters, e.g. {@code [INTEGER, VARCHAR(12)]}, never
+ * with their values. The statements' SQL comes from the DAOs' constants, so the number of distinct texts is small;
+ * past {@value #MAX_STATEMENTS} of them, further texts are counted together under {@value #OTHER_SQL}.
+ */
+public class StatementMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementMetrics.class);
+
+    static final int MAX_STATEMENTS = 512;
+    static final String OTHER_SQL = "other";
+
+    private final Map<String, SqlStats> statements = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+
+    /**
+     * @param slowThresholdMillis executions taking longer than this are logged; a negative value disables the log.
+     */
+    public StatementMetrics(long slowThresholdMillis) {
+        this.slowThresholdNanos = slowThresholdMillis < 0 ? Long.MAX_VALUE
+                : TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    }
+
+    /**
+     * @return the statements executed so far, ordered by SQL text.
+     */
+    public List<SqlStats> getStatements() {
+        List<SqlStats> snapshot = new ArrayList<>(statements.values());
+        snapshot.sort(Comparator.comparing(SqlStats::getSql));
+        return snapshot;
+    }
+
+    /**
+     * @return counters of the SQL text, or {@code null} if it was never prepared.
+     */
+    public SqlStats getStatement(String sql) {
+        return statements.get(sql);
+    }
+
+    /**
+     * Wraps a physical statement so its executions are recorded under its SQL text.
+     *
+     * @param owner the connection the statement reports as its own.
+     */
+    PreparedStatement instrument(PreparedStatement statement, String sql, Connection owner) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new InstrumentedStatement(this, statement, statsFor(sql), owner));
+    }
+
+    ResultSet countRows(ResultSet resultSet, SqlStats stats) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new CountingResultSet(resultSet, stats));
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos > slowThresholdNanos;
+    }
+
+    void logSlow(SqlStats stats, long nanos, String parameterTypes) {
+        LOGGER.warn("Slow statement took {} ms: {} with parameters {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                stats.getSql(), parameterTypes);
+    }
+
+    private SqlStats statsFor(String sql) {
+        SqlStats stats = statements.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String key = statements.size() < MAX_STATEMENTS ? sql : OTHER_SQL;
+        return statements.computeIfAbsent(key, SqlStats::new);
+    }
+}
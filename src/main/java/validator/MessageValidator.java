@@ -1,13 +1,13 @@
 package validator;
 
 import model.Message;
-import service.MessageService;
+import service.AccountService;
 
 public class MessageValidator {
-    private MessageService service;
+    private AccountService accountService;
 
-    public MessageValidator(MessageService service) {
-        this.service = service;
+    public MessageValidator(AccountService accountService) {
+        this.accountService = accountService;
     }
 
     public boolean isMessageTextBlank(Message message) {
@@ -19,6 +19,6 @@ public class MessageValidator {
     }
 
     public boolean isPosterAccountMissing(Message message) {
-        return service.findByMessageId(message.getPosted_by()) == null;
+        return !accountService.accountExists(message.getPosted_by());
     }
 }
@@ -0,0 +1,146 @@
+package wire;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Account;
+import model.Author;
+import model.Message;
+import model.MessageWithAuthor;
+
+/**
+ * Reads messages and accounts written in the {@link BinaryFormat}, for clients of the API.
+ * <p>
+ * Frames are read into a reusable buffer, so the only allocations per element are the object and its strings.
+ * Bytes a frame holds beyond the fields known here are skipped, as are unknown flags. Not thread-safe.
+ */
+public class BinaryDecoder {
+
+    private final InputStream inputStream;
+    private byte[] frame = new byte[256];
+    private int position;
+    private int limit;
+
+    /**
+     * @param inputStream the response body; it is buffered here unless it already is.
+     */
+    public BinaryDecoder(InputStream inputStream) {
+        this.inputStream = inputStream instanceof BufferedInputStream ? inputStream
+                : new BufferedInputStream(inputStream);
+    }
+
+    /**
+     * @return the next message, a {@link MessageWithAuthor} if the author was expanded, or {@code null} at the end
+     * of the body.
+     */
+    public Message readMessage() throws IOException {
+        if (!nextFrame()) {
+            return null;
+        }
+        int flags = readByte();
+        Message message = new Message(readInt(), readInt(), readString(), readVarint());
+        if ((flags & BinaryFormat.AUTHOR_EXPANDED) == 0) {
+            return message;
+        }
+        Author author = readByte() == 0 ? null : new Author(readInt(), readString());
+        return new MessageWithAuthor(message, author);
+    }
+
+    /**
+     * @return the next account, or {@code null} at the end of the body.
+     */
+    public Account readAccount() throws IOException {
+        if (!nextFrame()) {
+            return null;
+        }
+        return new Account(readInt(), readString(), readString());
+    }
+
+    /**
+     * Reads messages until the end of the body.
+     */
+    public List<Message> readMessages() throws IOException {
+        List<Message> messages = new ArrayList<>();
+        Message message;
+        while ((message = readMessage()) != null) {
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private boolean nextFrame() throws IOException {
+        int first = inputStream.read();
+        if (first < 0) {
+            return false;
+        }
+        long length = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = inputStream.read();
+            if (b < 0) {
+                throw new EOFException("Truncated frame length");
+            }
+            if (shift > 28) {
+                throw new StreamCorruptedException("Frame length too long");
+            }
+            length |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new StreamCorruptedException("Frame of " + length + " bytes");
+        }
+        if (length > frame.length) {
+            frame = new byte[(int) Math.max(length, frame.length * 2L)];
+        }
+        limit = (int) length;
+        position = 0;
+        if (inputStream.readNBytes(frame, 0, limit) < limit) {
+            throw new EOFException("Truncated frame");
+        }
+        return true;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new EOFException("Field beyond the end of the frame");
+        }
+        return frame[position++] & 0xFF;
+    }
+
+    private int readInt() throws IOException {
+        return (int) readVarint();
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Varint too long");
+    }
+
+    private String readString() throws IOException {
+        long length = readVarint();
+        if (length == 0) {
+            return null;
+        }
+        if (length - 1 > limit - position) {
+            throw new EOFException("String beyond the end of the frame");
+        }
+        int size = (int) (length - 1);
+        String value = new String(frame, position, size, StandardCharsets.UTF_8);
+        position += size;
+        return value;
+    }
+}
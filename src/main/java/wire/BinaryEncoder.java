@@ -0,0 +1,171 @@
+package wire;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import model.Account;
+import model.Author;
+import model.Message;
+import model.MessageWithAuthor;
+
+/**
+ * Writes messages and accounts in the {@link BinaryFormat} to a stream.
+ * <p>
+ * Each frame is assembled in a reusable buffer and handed to the stream with one write, and strings are encoded to
+ * UTF-8 in place, so writing a list allocates nothing per element once the buffer fits the largest frame.
+ * Not thread-safe; use one encoder per response.
+ */
+public class BinaryEncoder {
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private final OutputStream outputStream;
+    private byte[] buffer = new byte[256];
+    private int position;
+
+    public BinaryEncoder(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * Encodes one object into a new array, for single-object responses.
+     */
+    public static byte[] encode(Object value) {
+        BinaryEncoder encoder = new BinaryEncoder(null);
+        encoder.encodePayload(value);
+        byte[] frame = new byte[varintSize(encoder.position) + encoder.position];
+        int offset = putVarint(frame, 0, encoder.position);
+        System.arraycopy(encoder.buffer, 0, frame, offset, encoder.position);
+        return frame;
+    }
+
+    /**
+     * @param value a {@link Message}, including a {@link MessageWithAuthor}, or an {@link Account}.
+     */
+    public void write(Object value) throws IOException {
+        position = MAX_VARINT_BYTES;
+        encodePayload(value);
+        int length = position - MAX_VARINT_BYTES;
+        int start = MAX_VARINT_BYTES - varintSize(length);
+        putVarint(buffer, start, length);
+        outputStream.write(buffer, start, position - start);
+    }
+
+    private void encodePayload(Object value) {
+        if (value instanceof Message) {
+            Message message = (Message) value;
+            writeByte(message instanceof MessageWithAuthor ? BinaryFormat.AUTHOR_EXPANDED : 0);
+            writeVarint(Integer.toUnsignedLong(message.getMessage_id()));
+            writeVarint(Integer.toUnsignedLong(message.getPosted_by()));
+            writeString(message.getMessage_text());
+            writeVarint(message.getTime_posted_epoch());
+            if (message instanceof MessageWithAuthor) {
+                Author author = ((MessageWithAuthor) message).getAuthor();
+                if (author == null) {
+                    writeByte(0);
+                } else {
+                    writeByte(1);
+                    writeVarint(Integer.toUnsignedLong(author.getAccount_id()));
+                    writeString(author.getUsername());
+                }
+            }
+        } else if (value instanceof Account) {
+            Account account = (Account) value;
+            writeVarint(Integer.toUnsignedLong(account.getAccount_id()));
+            writeString(account.getUsername());
+            writeString(account.getPassword());
+        } else {
+            throw new IllegalArgumentException("No binary encoding for " + value.getClass().getName());
+        }
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeVarint(long value) {
+        ensureCapacity(MAX_VARINT_BYTES);
+        position = putVarint(buffer, position, value);
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        int length = value.length();
+        // At most three bytes per UTF-16 unit; surrogate pairs take four bytes for two units.
+        ensureCapacity(MAX_VARINT_BYTES + 3 * length);
+        position = putVarint(buffer, position, utf8Length(value) + 1L);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >>> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >>> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >>> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >>> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                buffer[position++] = '?';
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >>> 12);
+                buffer[position++] = (byte) (0x80 | c >>> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Same byte count as {@code value.getBytes(UTF_8).length}, unpaired surrogates being replaced by {@code '?'}.
+     */
+    private static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x800) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    bytes += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            } else if (c >= 0x80) {
+                bytes++;
+            }
+        }
+        return bytes;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, position + extra)];
+            System.arraycopy(buffer, 0, grown, 0, position);
+            buffer = grown;
+        }
+    }
+
+    private static int putVarint(byte[] target, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target[offset++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        target[offset++] = (byte) value;
+        return offset;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+package wire;
+
+/**
+ * Compact binary encoding of messages and accounts, offered next to JSON when a client sends
+ * {@code Accept: application/vnd.media-blog.binary}.
+ * <p>
+ * A body is a sequence of frames, one per object: a single object is one frame and a list is as many frames as it has
+ * elements, ending with the body. A frame is the varint length of its payload followed by the payload, so a reader
+ * skips any bytes a frame holds after the fields it knows, e.g. fields a later version appends.
+ * <p>
+ * Payloads:
+ * <ul>
+ *     <li>message: a flags byte, {@code message_id}, {@code posted_by}, {@code message_text},
+ *     {@code time_posted_epoch}, then, if the flags have {@link #AUTHOR_EXPANDED} set, a byte {@code 1} followed by
+ *     the author's {@code account_id} and {@code username}, or a byte {@code 0} if the author is unknown;</li>
+ *     <li>account: {@code account_id}, {@code username}, {@code password}.</li>
+ * </ul>
+ * Numbers are unsigned LEB128 varints, so ids below 128 take one byte and a current epoch takes five. A string is the
+ * varint of its UTF-8 length plus one, {@code 0} standing for {@code null}, followed by its UTF-8 bytes.
+ * <p>
+ * A page of messages is sent as the list of its items, with its cursor in the {@value #NEXT_CURSOR_HEADER} header.
+ */
+public final class BinaryFormat {
+
+    public static final String CONTENT_TYPE = "application/vnd.media-blog.binary";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Flag of a message payload whose author was expanded. Readers ignore flags they don't know.
+     */
+    public static final int AUTHOR_EXPANDED = 0x01;
+
+    private BinaryFormat() {
+    }
+}
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS account (
+    account_id INT PRIMARY KEY auto_increment,
+    username VARCHAR(255) UNIQUE,
+    password VARCHAR(255)
+);
+CREATE TABLE IF NOT EXISTS message (
+    message_id INT PRIMARY KEY auto_increment,
+    posted_by INT,
+    message_text VARCHAR(255),
+    time_posted_epoch bigint,
+    FOREIGN KEY (posted_by) REFERENCES account(account_id)
+);
@@ -0,0 +1,2 @@
+-- Account timelines: messages of one poster ordered by (time_posted_epoch, message_id)
+CREATE INDEX IF NOT EXISTS idx_message_posted_by_time ON message (posted_by, time_posted_epoch, message_id);
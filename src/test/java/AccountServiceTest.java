@@ -0,0 +1,93 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dao.impl.AccountDaoImpl;
+import model.Account;
+import security.PasswordHasher;
+import service.AccountService;
+import util.ConnectionUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AccountServiceTest {
+    PasswordHasher passwordHasher;
+    RecordingAccountDao accountDao;
+    AccountService accountService;
+
+    /**
+     * Before every test, reset the database and build a service whose DAO records the threads it is called on.
+     */
+    @BeforeEach
+    public void setUp() {
+        ConnectionUtil.resetTestDatabase();
+        passwordHasher = new PasswordHasher(1_000, 1, 1);
+        accountDao = new RecordingAccountDao();
+        accountService = new AccountService(accountDao, passwordHasher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHasher.close();
+    }
+
+    /**
+     * The insert runs on the JDBC executor, so the hashing thread never waits for a connection.
+     */
+    @Test
+    public void createRunsInsertOnJdbcExecutor() {
+        Account account = new Account("newuser", "password");
+
+        assertTrue(accountService.create(account).join());
+
+        assertTrue(account.getAccount_id() > 0);
+        assertJdbcThreads(accountDao.threads);
+    }
+
+    /**
+     * The account lookup and the rehash of a plaintext password both run on the JDBC executor.
+     */
+    @Test
+    public void loginRunsQueriesOnJdbcExecutor() {
+        Account account = accountService.login(new Account("testuser1", "password")).join();
+
+        assertEquals(1, account.getAccount_id());
+        assertEquals(2, accountDao.threads.size());
+        assertJdbcThreads(accountDao.threads);
+        assertTrue(passwordHasher.verify("password", accountDao.findByName("testuser1").getPassword()));
+    }
+
+    private static void assertJdbcThreads(List<String> threads) {
+        assertTrue(!threads.isEmpty() && threads.stream().allMatch(name -> name.startsWith("jdbc-")),
+                threads.toString());
+    }
+
+    /**
+     * Records the threads that create accounts, look them up by name and update their passwords.
+     */
+    static class RecordingAccountDao extends AccountDaoImpl {
+        final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void create(Account account) {
+            threads.add(Thread.currentThread().getName());
+            super.create(account);
+        }
+
+        @Override
+        public Account findByName(String username) {
+            threads.add(Thread.currentThread().getName());
+            return super.findByName(username);
+        }
+
+        @Override
+        public boolean updatePassword(Account account, String passwordHash) {
+            threads.add(Thread.currentThread().getName());
+            return super.updatePassword(account, passwordHash);
+        }
+    }
+}
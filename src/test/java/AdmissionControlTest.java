@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import admission.AdmissionController;
+import admission.GradientLimit;
+import admission.Priority;
+import controller.SocialMediaController;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    SocialMediaController socialMediaController;
+    AdmissionController admissionController;
+    HttpClient webClient;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, restart the Javalin app, and create a new webClient for interacting
+     * locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        ConnectionUtil.resetTestDatabase();
+        socialMediaController = new SocialMediaController();
+        admissionController = socialMediaController.getAdmissionController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Once the limit is reached, requests are answered with 503 and Retry-After without reaching the handler, and
+     * are admitted again as soon as a slot frees up.
+     */
+    @Test
+    public void requestsOverLimitAreRejected() throws IOException, InterruptedException {
+        int taken = takeAllSlots(Priority.HIGH);
+
+        HttpResponse<String> response = get("/messages/1");
+        assertEquals(503, response.statusCode());
+        assertEquals("1", response.headers().firstValue("Retry-After").orElse(null));
+        assertEquals(2, admissionController.getRejected(Priority.HIGH));
+
+        admissionController.release(MILLIS, false);
+        assertEquals(200, get("/messages/1").statusCode());
+        assertEquals(taken - 1, admissionController.getInFlight());
+        releaseAll(taken - 1);
+    }
+
+    /**
+     * With half of the limit in use, full scans are turned away while reads by id are still served.
+     */
+    @Test
+    public void scansAreShedBeforeCheapReads() throws IOException, InterruptedException {
+        int taken = takeAllSlots(Priority.LOW);
+
+        assertEquals(503, get("/messages").statusCode());
+        assertEquals(200, get("/messages?limit=10").statusCode());
+        assertEquals(200, get("/messages/1").statusCode());
+        assertEquals(2, admissionController.getRejected(Priority.LOW));
+        releaseAll(taken);
+        assertEquals(200, get("/messages").statusCode());
+    }
+
+    /**
+     * The metrics endpoint is never shed, and reports the limit and decisions by priority.
+     */
+    @Test
+    public void metricsAreExported() throws IOException, InterruptedException {
+        get("/messages/1");
+        int taken = takeAllSlots(Priority.HIGH);
+
+        int limit = admissionController.getLimit();
+        HttpResponse<String> response = get("/metrics");
+        releaseAll(taken);
+        String body = response.body();
+
+        assertEquals(200, response.statusCode());
+        assertTrue(body.contains("http_admission_limit " + limit + "\n"), body);
+        assertTrue(body.contains("http_admission_requests_total{priority=\"high\",result=\"admitted\"} "), body);
+        assertTrue(body.contains("http_admission_requests_total{priority=\"low\",result=\"rejected\"} 0\n"), body);
+        assertTrue(body.contains("http_admission_in_flight " + taken + "\n"), body);
+    }
+
+    /**
+     * The limit shrinks once latency rises well above its baseline, but not below the minimum.
+     */
+    @Test
+    public void limitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(100, 10, 200, 2.0);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, 100, false);
+        }
+        int steady = limit.getLimit();
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(100 * MILLIS, 100, false);
+        }
+        assertTrue(limit.getLimit() < steady, limit.getLimit() + " >= " + steady);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(100 * MILLIS, 100, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    /**
+     * With steady latency the limit grows while it is in use, and stays put while the server is mostly idle.
+     */
+    @Test
+    public void limitGrowsOnlyWhenUsed() {
+        GradientLimit limit = new GradientLimit(20, 10, 200, 2.0);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, 1, false);
+        }
+        assertEquals(20, limit.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > 20, Integer.toString(limit.getLimit()));
+    }
+
+    /**
+     * A request dropped by the server cuts the limit right away.
+     */
+    @Test
+    public void dropBacksOff() {
+        GradientLimit limit = new GradientLimit(100, 10, 200, 2.0);
+        limit.onSample(10 * MILLIS, 1, true);
+
+        assertEquals(90, limit.getLimit());
+        assertEquals(0, limit.getBaselineNanos());
+    }
+
+    /**
+     * Takes slots of the given priority until one is refused, which counts as one rejection.
+     */
+    private int takeAllSlots(Priority priority) {
+        int taken = 0;
+        while (admissionController.tryAcquire(priority)) {
+            taken++;
+        }
+        return taken;
+    }
+
+    private void releaseAll(int taken) {
+        for (int i = 0; i < taken; i++) {
+            admissionController.release(MILLIS, false);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
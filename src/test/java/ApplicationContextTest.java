@@ -0,0 +1,114 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletionException;
+
+import admission.AdmissionController;
+import admission.Priority;
+import app.ApplicationContext;
+import security.PasswordHasher;
+import util.BoundedExecutor;
+import util.ConnectionUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApplicationContextTest {
+    ApplicationContext context;
+    HttpClient webClient;
+
+    /**
+     * Before every test, reset the database and start a fully wired, warmed-up application.
+     */
+    @BeforeEach
+    public void setUp() {
+        ConnectionUtil.resetTestDatabase();
+        context = new ApplicationContext();
+        context.start(8080);
+        webClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        context.stop();
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/health/ready once start() has returned
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     */
+    @Test
+    public void readyAfterStart() throws IOException, InterruptedException {
+        assertTrue(context.isReady());
+        assertEquals(200, send("/health/ready").statusCode());
+        assertEquals(200, send("/messages").statusCode());
+    }
+
+    /**
+     * Warm-up leaves no trace in the data: the seeded account and message are unchanged.
+     */
+    @Test
+    public void warmUpDoesNotWrite() throws IOException, InterruptedException {
+        assertEquals("[{\"message_id\":1,\"posted_by\":1,\"message_text\":\"test message 1\","
+                + "\"time_posted_epoch\":1669947792}]", send("/messages").body());
+    }
+
+    /**
+     * Warm-up requests are not counted by the request metrics or the admission controller, and leave the limit at
+     * its initial value.
+     */
+    @Test
+    public void warmUpIsNotRecorded() {
+        AdmissionController admissionController = context.getController().getAdmissionController();
+
+        assertTrue(context.getController().getRequestMetrics().getRoutes().isEmpty());
+        assertEquals(64, admissionController.getLimit());
+        for (Priority priority : Priority.values()) {
+            assertEquals(0, admissionController.getAdmitted(priority));
+        }
+    }
+
+    /**
+     * After stop() the context is no longer ready and the server no longer accepts requests.
+     */
+    @Test
+    public void stopShutsTheServerDown() {
+        context.stop();
+
+        assertFalse(context.isReady());
+        assertThrows(IOException.class, () -> send("/health/ready"));
+    }
+
+    /**
+     * stop() closes the JDBC executor, the connection pool and the password hasher; the next caller of
+     * ConnectionUtil gets a new pool.
+     */
+    @Test
+    public void stopClosesExecutorsAndPool() {
+        BoundedExecutor jdbcExecutor = ConnectionUtil.getJdbcExecutor();
+        PasswordHasher passwordHasher = context.getPasswordHasher();
+
+        context.stop();
+
+        assertThrows(CompletionException.class, () -> jdbcExecutor.supply(() -> 1).join());
+        assertThrows(CompletionException.class, () -> passwordHasher.hashAsync("password").join());
+        assertNotSame(jdbcExecutor, ConnectionUtil.getJdbcExecutor());
+        assertDoesNotThrow(() -> ConnectionUtil.getConnection().close());
+    }
+
+    private HttpResponse<String> send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import controller.SocialMediaController;
+import model.Account;
+import model.Author;
+import model.Message;
+import model.MessageWithAuthor;
+import util.ConnectionUtil;
+import wire.BinaryDecoder;
+import wire.BinaryEncoder;
+import wire.BinaryFormat;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryFormatTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, restart the Javalin app, and create a new webClient and ObjectMapper
+     * for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        ConnectionUtil.resetTestDatabase();
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages with Accept: application/vnd.media-blog.binary
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: the seeded message in the binary format
+     */
+    @Test
+    public void getAllMessagesBinary() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get("http://localhost:8080/messages");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(BinaryFormat.CONTENT_TYPE, response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals(List.of(new Message(1, 1, "test message 1", 1669947792L)), decode(response).readMessages());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages/1 with Accept: application/vnd.media-blog.binary
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: the message in the binary format
+     */
+    @Test
+    public void getMessageByIdBinary() throws IOException, InterruptedException {
+        BinaryDecoder decoder = decode(get("http://localhost:8080/messages/1"));
+
+        assertEquals(new Message(1, 1, "test message 1", 1669947792L), decoder.readMessage());
+        assertNull(decoder.readMessage());
+    }
+
+    /**
+     * After adding a second message, sending an http request to GET
+     * localhost:8080/accounts/1/messages?limit=1&expand=author with Accept: application/vnd.media-blog.binary
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: the message with its author; the cursor of the next page in the X-Next-Cursor header
+     */
+    @Test
+    public void getMessagesPageWithAuthorBinary() throws IOException, InterruptedException {
+        HttpRequest postMessage = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"posted_by\":1,\"message_text\":\"test message 2\",\"time_posted_epoch\":1669947800}"))
+                .header("Content-Type", "application/json")
+                .build();
+        assertEquals(200, webClient.send(postMessage, HttpResponse.BodyHandlers.discarding()).statusCode());
+
+        HttpResponse<byte[]> response = get("http://localhost:8080/accounts/1/messages?limit=1&expand=author");
+        List<Message> messages = decode(response).readMessages();
+
+        assertEquals(1, messages.size());
+        MessageWithAuthor message = assertInstanceOf(MessageWithAuthor.class, messages.get(0));
+        assertEquals(new Author(1, "testuser1"), message.getAuthor());
+        assertTrue(response.headers().firstValue(BinaryFormat.NEXT_CURSOR_HEADER).isPresent());
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/login with Accept: application/vnd.media-blog.binary
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: the account in the binary format
+     */
+    @Test
+    public void loginBinary() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"testuser1\",\"password\":\"password\"}"))
+                .header("Content-Type", "application/json")
+                .header("Accept", BinaryFormat.CONTENT_TYPE)
+                .build();
+        HttpResponse<byte[]> response = webClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(new Account(1, "testuser1", "password"), decode(response).readAccount());
+    }
+
+    /**
+     * Every field survives a round trip, including null and non-ASCII strings, extreme numbers and unknown authors.
+     */
+    @Test
+    public void roundTrip() throws IOException {
+        List<Message> messages = List.of(
+                new Message(1, 2, "plain", 1669947792L),
+                new Message(Integer.MAX_VALUE, -1, "caf\u00e9 \u4e16\u754c \ud83d\ude00", Long.MAX_VALUE),
+                new Message(3, 4, "", -5L),
+                new MessageWithAuthor(new Message(5, 6, "", 0L), new Author(6, "author")),
+                new MessageWithAuthor(new Message(7, 8, "x".repeat(1000), 1L), null));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(output);
+        for (Message message : messages) {
+            encoder.write(message);
+        }
+
+        List<Message> decoded = new BinaryDecoder(new ByteArrayInputStream(output.toByteArray())).readMessages();
+
+        assertEquals(messages, decoded);
+        assertEquals(new Author(6, "author"), ((MessageWithAuthor) decoded.get(3)).getAuthor());
+        assertNull(((MessageWithAuthor) decoded.get(4)).getAuthor());
+        Account account = new BinaryDecoder(new ByteArrayInputStream(
+                BinaryEncoder.encode(new Account(9, "user", null)))).readAccount();
+        assertEquals(9, account.getAccount_id());
+        assertEquals("user", account.getUsername());
+        assertNull(account.getPassword());
+    }
+
+    /**
+     * A message takes far fewer bytes than its JSON.
+     */
+    @Test
+    public void binaryIsCompact() throws IOException {
+        Message message = new Message(1, 1, "test message 1", 1669947792L);
+
+        int json = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8).length;
+
+        assertEquals(1 + 1 + 1 + 1 + 15 + 5, BinaryEncoder.encode(message).length);
+        assertTrue(BinaryEncoder.encode(message).length * 3 < json);
+    }
+
+    /**
+     * A body cut in the middle of a frame is reported instead of yielding a partial message.
+     */
+    @Test
+    public void truncatedFrameIsRejected() {
+        byte[] frame = BinaryEncoder.encode(new Message(1, 1, "test message 1", 1669947792L));
+        byte[] truncated = Arrays.copyOf(frame, frame.length - 3);
+
+        assertThrows(EOFException.class, () -> new BinaryDecoder(new ByteArrayInputStream(truncated)).readMessage());
+    }
+
+    /**
+     * Fields a later version appends to a payload are skipped, with or without an expanded author, and the next
+     * frame is still read from its start.
+     */
+    @Test
+    public void unknownTrailingFieldsAreSkipped() throws IOException {
+        Message plain = new Message(1, 2, "plain", 1669947792L);
+        MessageWithAuthor expanded = new MessageWithAuthor(new Message(3, 4, "expanded", 1L), new Author(4, "author"));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(withTrailingField(BinaryEncoder.encode(plain), 1, 42));
+        output.write(withTrailingField(BinaryEncoder.encode(expanded), 0));
+        output.write(BinaryEncoder.encode(plain));
+
+        List<Message> decoded = new BinaryDecoder(new ByteArrayInputStream(output.toByteArray())).readMessages();
+
+        assertEquals(List.of(plain, expanded, plain), decoded);
+        assertEquals(Message.class, decoded.get(0).getClass());
+        assertEquals(new Author(4, "author"), ((MessageWithAuthor) decoded.get(1)).getAuthor());
+        Account account = new BinaryDecoder(new ByteArrayInputStream(withTrailingField(
+                BinaryEncoder.encode(new Account(9, "user", "password")), 7))).readAccount();
+        assertEquals("password", account.getPassword());
+    }
+
+    /**
+     * Appends bytes to the payload of a frame shorter than 128 bytes, whose length is a single byte.
+     */
+    private static byte[] withTrailingField(byte[] frame, int... field) {
+        byte[] extended = Arrays.copyOf(frame, frame.length + field.length);
+        extended[0] = (byte) (frame[0] + field.length);
+        for (int i = 0; i < field.length; i++) {
+            extended[frame.length + i] = (byte) field[i];
+        }
+        return extended;
+    }
+
+    private HttpResponse<byte[]> get(String uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .header("Accept", BinaryFormat.CONTENT_TYPE)
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static BinaryDecoder decode(HttpResponse<byte[]> response) {
+        return new BinaryDecoder(new ByteArrayInputStream(response.body()));
+    }
+}
@@ -0,0 +1,62 @@
+import org.junit.jupiter.api.Test;
+
+import cache.BloomFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    /**
+     * Every added string is reported as possibly present.
+     */
+    @Test
+    public void addedValuesAreNeverMissed() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i), "user" + i);
+        }
+        assertEquals(0, filter.getNegatives());
+    }
+
+    /**
+     * At the sized capacity, strings that were never added are rejected close to the configured rate.
+     */
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("stranger" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+        assertEquals(100_000 - falsePositives, filter.getNegatives());
+        assertTrue(filter.expectedFalsePositiveProbability() < 0.02);
+    }
+
+    /**
+     * An empty filter answers "definitely absent" for everything.
+     */
+    @Test
+    public void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        assertFalse(filter.mightContain("testuser1"));
+        assertFalse(filter.mightContain(""));
+    }
+
+    @Test
+    public void invalidSizingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+}
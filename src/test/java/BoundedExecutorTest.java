@@ -0,0 +1,52 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import util.BoundedExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BoundedExecutorTest {
+
+    /**
+     * With every thread busy and the queue full, further work fails fast instead of waiting.
+     */
+    @Test
+    public void saturatedExecutorRejectsWork() throws Exception {
+        try (BoundedExecutor executor = new BoundedExecutor("test", 1, 1)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Integer> running = executor.supply(() -> await(release, 1));
+            CompletableFuture<Integer> queued = executor.supply(() -> 2);
+            CompletableFuture<Integer> rejected = executor.supply(() -> 3);
+
+            ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+            assertEquals(1, executor.getRejected());
+            assertEquals(1, executor.getQueueDepth());
+
+            release.countDown();
+            assertEquals(1, running.get());
+            assertEquals(2, queued.get());
+        }
+    }
+
+    @Test
+    public void invalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedExecutor("test", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedExecutor("test", 1, 0));
+    }
+
+    private static int await(CountDownLatch latch, int value) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,229 @@
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.pool.ConnectionPool;
+import util.pool.PoolConfig;
+import util.pool.PoolStats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConnectionPoolTest {
+    ConnectionPool pool;
+
+    /**
+     * Before every test, create a pool of at most two connections to a private in-memory database.
+     */
+    @BeforeEach
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:pool-test;DB_CLOSE_DELAY=-1");
+        pool = new ConnectionPool(dataSource, new PoolConfig(0, 2, 200, 60_000, 1_000, 1, 100, 50, 2));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    /**
+     * Closing a borrowed connection returns the same physical connection to the pool.
+     */
+    @Test
+    public void closedConnectionIsReused() throws SQLException {
+        Connection first = pool.getConnection();
+        Connection physical = first.unwrap(Connection.class);
+        first.close();
+
+        try (Connection second = pool.getConnection()) {
+            assertSame(physical, second.unwrap(Connection.class));
+        }
+        assertEquals(1, pool.getStats().getConnectionsCreated());
+    }
+
+    /**
+     * A borrower waits for at most the acquire timeout once every connection is in use.
+     */
+    @Test
+    public void exhaustedPoolTimesOut() throws SQLException {
+        try (Connection a = pool.getConnection(); Connection b = pool.getConnection()) {
+            assertNotSame(a, b);
+            assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+
+            PoolStats stats = pool.getStats();
+            assertEquals(2, stats.getActive());
+            assertEquals(0, stats.getIdle());
+            assertEquals(1, stats.getTimeouts());
+        }
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    /**
+     * A waiting borrower is handed the connection as soon as another borrower returns it.
+     */
+    @Test
+    public void waiterReceivesReleasedConnection() throws Exception {
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (pool.getStats().getWaiters() == 0) {
+            Thread.onSpinWait();
+        }
+        a.close();
+
+        Connection c = waiter.get(1, TimeUnit.SECONDS);
+        assertFalse(c.isClosed());
+        c.close();
+        b.close();
+        assertTrue(a.isClosed());
+    }
+
+    /**
+     * Lazy query execution turned on by one borrower is off again for the next borrower of the same connection.
+     */
+    @Test
+    public void lazyQueryExecutionIsResetOnRelease() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement("SET LAZY_QUERY_EXECUTION TRUE")) {
+            preparedStatement.execute();
+            assertTrue(session(connection).isLazyQueryExecution());
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(session(connection).isLazyQueryExecution());
+        }
+        assertEquals(1, pool.getStats().getConnectionsCreated());
+    }
+
+    /**
+     * Preparing the same SQL on the same connection reuses the parsed statement and counts a cache hit.
+     */
+    @Test
+    public void preparedStatementIsCachedPerConnection() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement("SELECT ?")) {
+                preparedStatement.setInt(1, i);
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    assertTrue(resultSet.next());
+                    assertEquals(i, resultSet.getInt(1));
+                }
+            }
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(2, stats.getStatementCacheHits());
+    }
+
+    /**
+     * The cache holds at most the configured number of statements per connection, evicting the least recently used.
+     */
+    @Test
+    public void statementCacheIsBounded() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1"}) {
+                connection.prepareStatement(sql).close();
+            }
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(4, stats.getStatementCacheMisses());
+        assertEquals(2, stats.getStatementCacheEvictions());
+    }
+
+    /**
+     * Statements evicted while their borrower still holds them keep working until they are closed.
+     */
+    @Test
+    public void statementsInUseSurviveEviction() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement first = connection.prepareStatement("SELECT 1");
+             PreparedStatement second = connection.prepareStatement("SELECT 2");
+             PreparedStatement third = connection.prepareStatement("SELECT 3")) {
+            assertEquals(1, pool.getStats().getStatementCacheEvictions());
+            for (PreparedStatement statement : new PreparedStatement[]{first, second, third}) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertTrue(resultSet.next());
+                }
+            }
+            first.close();
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, first::executeQuery);
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertTrue(resultSet.next());
+        }
+    }
+
+    /**
+     * A connection opened to reach the minimum size while the pool is being closed is closed too, not left idle.
+     */
+    @Test
+    public void connectionOpenedDuringCloseIsDiscarded() throws SQLException {
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:pool-test;DB_CLOSE_DELAY=-1");
+        ConnectionPool[] closingPool = new ConnectionPool[1];
+        Connection[] opened = new Connection[1];
+        // closes the pool while it opens a connection, as a concurrent close() would
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    Object result = method.invoke(target, args);
+                    if (method.getName().equals("getConnection")) {
+                        opened[0] = (Connection) result;
+                        closingPool[0].close();
+                    }
+                    return result;
+                });
+        closingPool[0] = new ConnectionPool(dataSource, new PoolConfig(1, 2, 200, 60_000, 1_000, 1, 100, 60_000, 2));
+
+        closingPool[0].warmUp();
+
+        assertTrue(opened[0].isClosed());
+        assertEquals(0, closingPool[0].getStats().getIdle());
+        assertEquals(1, closingPool[0].getStats().getConnectionsClosed());
+    }
+
+    /**
+     * A connection held past the leak detection threshold is reported once by the housekeeper.
+     */
+    @Test
+    public void overdueConnectionIsReportedAsLeak() throws Exception {
+        try (Connection ignored = pool.getConnection()) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (pool.getStats().getLeaksDetected() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1, pool.getStats().getLeaksDetected());
+        }
+    }
+
+    private static SessionLocal session(Connection connection) throws SQLException {
+        return (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+    }
+
+}
@@ -117,4 +117,24 @@ public class CreateMessageTest {
         assertEquals("", response.body());
     }
 
+    /**
+     * Sending an http request to POST localhost:8080/messages posted by an account registered after startup
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: JSON representation of message object
+     */
+    @Test
+    public void createMessageByNewlyRegisteredUser() throws IOException, InterruptedException {
+        HttpRequest registerRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/register")).POST(HttpRequest.BodyPublishers.ofString("{" + "\"username\": \"user\", " + "\"password\": \"password\" }")).header("Content-Type", "application/json").build();
+        assertEquals(200, webClient.send(registerRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        HttpRequest postMessageRequest = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080/messages")).POST(HttpRequest.BodyPublishers.ofString("{" + "\"posted_by\":2, " + "\"message_text\": \"first post\", " + "\"time_posted_epoch\": 1669947792}")).header("Content-Type", "application/json").build();
+        HttpResponse<String> response = webClient.send(postMessageRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+
+        Message expectedResult = new Message(2, 2, "first post", 1669947792);
+        Message actualResult = objectMapper.readValue(response.body(), Message.class);
+        assertEquals(expectedResult, actualResult);
+    }
 }
@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import controller.SocialMediaController;
+import model.Message;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CreateMessagesBatchTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, restart the Javalin app, and create a new webClient
+     * and ObjectMapper for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        ConnectionUtil.resetTestDatabase();
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/messages/batch with valid messages
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: JSON representation of the created messages, in request order, with their ids
+     */
+    @Test
+    public void createMessagesBatchSuccessful() throws IOException, InterruptedException {
+        HttpResponse<String> response = postBatch("[" +
+                "{\"posted_by\":1, \"message_text\": \"first\", \"time_posted_epoch\": 1669947793}, " +
+                "{\"posted_by\":1, \"message_text\": \"second\", \"time_posted_epoch\": 1669947794}, " +
+                "{\"posted_by\":1, \"message_text\": \"third\", \"time_posted_epoch\": 1669947795}]");
+        assertEquals(200, response.statusCode());
+
+        List<Message> expectedResult = List.of(
+                new Message(2, 1, "first", 1669947793),
+                new Message(3, 1, "second", 1669947794),
+                new Message(4, 1, "third", 1669947795));
+        List<Message> actualResult = objectMapper.readValue(response.body(), new TypeReference<>() {
+        });
+        assertEquals(expectedResult, actualResult);
+        assertEquals(4, countMessages());
+    }
+
+    /**
+     * Sending an http request to POST localhost:8080/messages/batch where one message is blank
+     * <p>
+     * Expected Response:
+     * Status Code: 400
+     * Response Body:
+     * No message of the batch is persisted
+     */
+    @Test
+    public void createMessagesBatchOneInvalid() throws IOException, InterruptedException {
+        HttpResponse<String> response = postBatch("[" +
+                "{\"posted_by\":1, \"message_text\": \"first\", \"time_posted_epoch\": 1669947793}, " +
+                "{\"posted_by\":1, \"message_text\": \"\", \"time_posted_epoch\": 1669947794}]");
+
+        assertEquals(400, response.statusCode());
+        assertEquals("", response.body());
+        assertEquals(1, countMessages());
+    }
+
+    private HttpResponse<String> postBatch(String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .header("Content-Type", "application/json")
+                .build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private int countMessages() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Message> messages = objectMapper.readValue(response.body(), new TypeReference<>() {
+        });
+        return messages.size();
+    }
+}
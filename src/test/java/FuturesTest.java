@@ -0,0 +1,75 @@
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import util.BoundedExecutor;
+import util.Futures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FuturesTest {
+
+    /**
+     * Two lookups combined with both() run at the same time: each one waits until the other has started.
+     */
+    @Test
+    public void bothRunsLookupsInParallel() throws Exception {
+        try (BoundedExecutor executor = new BoundedExecutor("test", 2, 2)) {
+            CountDownLatch started = new CountDownLatch(2);
+            CompletableFuture<String> first = executor.supply(() -> meet(started, "a"));
+            CompletableFuture<Integer> second = executor.supply(() -> meet(started, 1));
+
+            assertEquals("a1", Futures.both(first, second, (a, b) -> a + b).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * all() keeps the order of the futures, not the order they complete in.
+     */
+    @Test
+    public void allKeepsOrder() throws Exception {
+        CompletableFuture<Integer> slow = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> all = Futures.all(List.of(slow, CompletableFuture.completedFuture(2)));
+        slow.complete(1);
+
+        assertEquals(List.of(1, 2), all.get());
+    }
+
+    /**
+     * all() fails with the original exception as soon as one future fails, without waiting for the others.
+     */
+    @Test
+    public void allFailsFast() {
+        IllegalStateException failure = new IllegalStateException("lookup failed");
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> all = Futures.all(List.of(pending, CompletableFuture.failedFuture(failure)));
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, all::get);
+        assertSame(failure, thrown.getCause());
+    }
+
+    @Test
+    public void unwrapRemovesCompletionWrappers() {
+        IllegalStateException cause = new IllegalStateException();
+        assertSame(cause, Futures.unwrap(new CompletionException(new ExecutionException(cause))));
+        assertSame(cause, Futures.unwrap(cause));
+    }
+
+    private static <T> T meet(CountDownLatch started, T value) {
+        started.countDown();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS), "The other lookup did not run in parallel");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+}
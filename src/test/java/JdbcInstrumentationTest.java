@@ -0,0 +1,153 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.pool.ConnectionPool;
+import util.pool.PoolConfig;
+import util.pool.SqlStats;
+import util.pool.StatementMetrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JdbcInstrumentationTest {
+    private static final String INSERT = "INSERT INTO item (name) VALUES (?)";
+    private static final String SELECT = "SELECT id, name FROM item WHERE id <= ?";
+
+    ConnectionPool pool;
+    StatementMetrics metrics;
+
+    /**
+     * Before every test, create a pool whose every statement counts as slow, with a table of three rows.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:instrumentation-test;DB_CLOSE_DELAY=-1");
+        pool = new ConnectionPool(dataSource, new PoolConfig(0, 2, 200, 60_000, 1_000, 1, 0, 50, 2, true, 0));
+        metrics = pool.getStatementMetrics();
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "CREATE TABLE item (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(32))")) {
+                statement.execute();
+            }
+            for (String name : new String[]{"a", "b", "c"}) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    statement.setString(1, name);
+                    statement.executeUpdate();
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DROP TABLE item")) {
+            statement.execute();
+        }
+        pool.close();
+    }
+
+    /**
+     * Executions are counted per SQL text, and the rows read from a result are added once it is closed.
+     */
+    @Test
+    public void executionsAndRowsAreCountedBySql() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT)) {
+            statement.setInt(1, 2);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getString(2);
+                }
+            }
+            statement.setInt(1, 3);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+            }
+        }
+
+        SqlStats select = metrics.getStatement(SELECT);
+        assertEquals(2, select.getExecutions());
+        assertEquals(3, select.getRowsFetched());
+        assertEquals(0, select.getErrors());
+        assertEquals(3, metrics.getStatement(INSERT).getExecutions());
+        assertEquals(0, metrics.getStatement(INSERT).getRowsFetched());
+    }
+
+    /**
+     * A failing execution is counted as an error and its exception reaches the caller unchanged.
+     */
+    @Test
+    public void failedExecutionIsCountedAsError() throws SQLException {
+        String insertNull = "INSERT INTO item (id, name) VALUES (?, ?)";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(insertNull)) {
+            statement.setInt(1, 1);
+            statement.setNull(2, Types.VARCHAR);
+            assertThrows(SQLException.class, statement::executeUpdate);
+        }
+
+        assertEquals(1, metrics.getStatement(insertNull).getExecutions());
+        assertEquals(1, metrics.getStatement(insertNull).getErrors());
+    }
+
+    /**
+     * With a threshold of zero every execution is recorded as slow.
+     */
+    @Test
+    public void executionsOverThresholdAreSlow() {
+        assertEquals(3, metrics.getStatement(INSERT).getSlowExecutions());
+        assertEquals(3, metrics.getStatement(INSERT).getExecutionTime().count());
+    }
+
+    /**
+     * The instrumented statement and its results still report the pooled connection as their own.
+     */
+    @Test
+    public void statementReportsPooledConnection() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT)) {
+            assertSame(connection, statement.getConnection());
+        }
+    }
+
+    /**
+     * Returning a connection records how long it was borrowed.
+     */
+    @Test
+    public void holdTimeIsRecorded() throws SQLException {
+        long before = pool.getStats().getHoldTime().count();
+        pool.getConnection().close();
+
+        assertEquals(before + 1, pool.getStats().getHoldTime().count());
+    }
+
+    /**
+     * Statement metrics can be switched off, leaving the statements unwrapped.
+     */
+    @Test
+    public void metricsCanBeDisabled() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:instrumentation-test;DB_CLOSE_DELAY=-1");
+        ConnectionPool plain = new ConnectionPool(dataSource,
+                new PoolConfig(0, 1, 200, 60_000, 1_000, 1, 0, 50, 2, false, 0));
+        try {
+            assertNull(plain.getStatementMetrics());
+            assertTrue(metrics.getStatements().size() >= 2);
+        } finally {
+            plain.close();
+        }
+    }
+}
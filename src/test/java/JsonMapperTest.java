@@ -0,0 +1,118 @@
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import json.JacksonJsonMapper;
+import model.Account;
+import model.Author;
+import model.Message;
+import model.MessageWithAuthor;
+import model.Page;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonMapperTest {
+
+    private final JacksonJsonMapper jsonMapper = new JacksonJsonMapper();
+    private final ObjectMapper defaultMapper = new ObjectMapper();
+
+    /**
+     * The hand-written serializers produce exactly the JSON of plain bean serialization.
+     */
+    @Test
+    public void serializesLikeDefaultMapper() throws JsonProcessingException {
+        Message message = new Message(1, 2, "text with \"quotes\" and \u00fcn\u00efc\u00f6d\u00e9", 1669947792L);
+        Account account = new Account(3, "user", "password");
+        MessageWithAuthor withAuthor = new MessageWithAuthor(message, new Author(2, "author"));
+        MessageWithAuthor withoutAuthor = new MessageWithAuthor(message, null);
+        Page<Message> page = new Page<>(List.of(message), "cursor");
+
+        for (Object value : List.of(message, account, withAuthor, withoutAuthor, page, List.of(message, withAuthor))) {
+            assertEquals(defaultMapper.writeValueAsString(value), jsonMapper.toJsonString(value, value.getClass()));
+        }
+    }
+
+    /**
+     * Messages and accounts read back to equal objects, with missing fields left at their defaults.
+     */
+    @Test
+    public void deserializesModels() {
+        Message message = jsonMapper.fromJsonString(
+                "{\"posted_by\":\"1\",\"message_text\":\"hello\",\"time_posted_epoch\":1669947792}", Message.class);
+        Account account = jsonMapper.fromJsonString("{\"username\":\"user\",\"password\":null}", Account.class);
+
+        assertEquals(new Message(0, 1, "hello", 1669947792L), message);
+        assertEquals("user", account.getUsername());
+        assertNull(account.getPassword());
+        assertEquals(List.of(message), List.of(jsonMapper.<Message[]>fromJsonString(
+                "[{\"posted_by\":1,\"message_text\":\"hello\",\"time_posted_epoch\":1669947792}]", Message[].class)));
+    }
+
+    /**
+     * Unknown fields are rejected, as the default mapper does.
+     */
+    @Test
+    public void unknownFieldIsRejected() {
+        assertThrows(UncheckedIOException.class, () -> jsonMapper.fromJsonString(
+                "{\"username\":\"user\",\"password\":\"password\",\"role\":\"admin\"}", Account.class));
+    }
+
+    /**
+     * Values of the wrong type are rejected, as the default mapper does, instead of read as 0 or null.
+     */
+    @Test
+    public void wrongValueTypeIsRejected() {
+        for (String json : List.of(
+                "{\"posted_by\":\"abc\",\"message_text\":\"hello\"}",
+                "{\"posted_by\":[1],\"message_text\":\"hello\"}",
+                "{\"posted_by\":1,\"message_text\":{\"text\":\"hello\"}}",
+                "{\"posted_by\":1,\"message_text\":[\"hello\"]}",
+                "{\"posted_by\":1,\"time_posted_epoch\":{}}")) {
+            assertThrows(UncheckedIOException.class, () -> jsonMapper.fromJsonString(json, Message.class), json);
+        }
+        assertThrows(UncheckedIOException.class, () -> jsonMapper.fromJsonString(
+                "{\"username\":{\"name\":\"user\"},\"password\":\"password\"}", Account.class));
+        assertThrows(UncheckedIOException.class, () -> jsonMapper.fromJsonString(
+                "{\"account_id\":\"one\",\"username\":\"user\"}", Account.class));
+    }
+
+    /**
+     * When unknown fields are allowed, nested values of an unknown field are skipped without losing the fields after
+     * them.
+     */
+    @Test
+    public void unknownNestedValueIsSkipped() {
+        JacksonJsonMapper lenientMapper = new JacksonJsonMapper(JacksonJsonMapper.createObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+
+        Message message = lenientMapper.fromJsonString("{\"extra\":{\"posted_by\":9,\"list\":[1,{\"a\":[]}]},"
+                + "\"posted_by\":1,\"tags\":[\"x\",[2]],\"message_text\":\"hello\"}", Message.class);
+        Account account = lenientMapper.fromJsonString(
+                "{\"profile\":{\"username\":\"other\"},\"username\":\"user\"}", Account.class);
+
+        assertEquals(new Message(0, 1, "hello", 0L), message);
+        assertEquals("user", account.getUsername());
+    }
+
+    /**
+     * A stream of messages is written as a single JSON array.
+     */
+    @Test
+    public void writesStreamAsArray() throws JsonProcessingException {
+        List<Message> messages = List.of(new Message(1, 1, "a", 1L), new Message(2, 1, "b", 2L));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        jsonMapper.writeToOutputStream(Stream.of(messages.toArray()), output);
+
+        assertEquals(defaultMapper.writeValueAsString(messages), output.toString(StandardCharsets.UTF_8));
+    }
+}
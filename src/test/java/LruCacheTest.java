@@ -0,0 +1,87 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import cache.CacheStats;
+import cache.LruCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LruCacheTest {
+
+    /**
+     * A second lookup of the same key is served from the cache without calling the loader.
+     */
+    @Test
+    public void readThroughCachesLoadedValue() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 60_000, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1, key -> String.valueOf(loads.incrementAndGet())));
+        assertEquals("1", cache.get(1, key -> String.valueOf(loads.incrementAndGet())));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, loads.get());
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+    }
+
+    /**
+     * A missing key is cached as absent, and invalidating it makes the next lookup load again.
+     */
+    @Test
+    public void missingKeyIsCachedUntilInvalidated() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 60_000, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(cache.get(1, key -> { loads.incrementAndGet(); return null; }));
+        assertNull(cache.get(1, key -> { loads.incrementAndGet(); return null; }));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(1);
+        assertEquals("found", cache.get(1, key -> "found"));
+    }
+
+    /**
+     * The least recently used entry is evicted once the cache is full.
+     */
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        LruCache<Integer, String> cache = new LruCache<>(1, 60_000, 60_000);
+        cache.get(1, key -> "one");
+        cache.get(2, key -> "two");
+
+        assertEquals("reloaded", cache.get(1, key -> "reloaded"));
+        assertEquals(2, cache.stats().getEvictions());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * An entry older than its time to live is reloaded.
+     */
+    @Test
+    public void expiredEntryIsReloaded() throws InterruptedException {
+        LruCache<Integer, String> cache = new LruCache<>(10, 20, 20);
+        cache.get(1, key -> "old");
+        Thread.sleep(40);
+
+        assertEquals("new", cache.get(1, key -> "new"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    /**
+     * A load racing with an invalidation of the same key is returned but not cached, so it cannot resurrect
+     * the value that the invalidation removed.
+     */
+    @Test
+    public void loadRacingWithInvalidationIsNotCached() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 60_000, 60_000);
+
+        assertEquals("stale", cache.get(1, key -> {
+            cache.invalidate(1);
+            return "stale";
+        }));
+        assertEquals("fresh", cache.get(1, key -> "fresh"));
+    }
+}
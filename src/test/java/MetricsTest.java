@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import controller.SocialMediaController;
+import io.javalin.http.HandlerType;
+import metrics.Histogram;
+import metrics.PrometheusWriter;
+import metrics.RouteMetrics;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, restart the Javalin app, and create a new webClient for interacting
+     * locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        ConnectionUtil.resetTestDatabase();
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Requests are recorded under the path template of their route, including those completed asynchronously.
+     */
+    @Test
+    public void requestsAreRecordedByRoute() throws IOException, InterruptedException {
+        get("/messages/1");
+        get("/messages/2");
+        get("/messages/100");
+
+        RouteMetrics route = socialMediaController.getRequestMetrics().getRoute(HandlerType.GET, "/messages/{id}");
+
+        assertEquals(3, route.getLatency().count());
+        assertEquals(3, route.getStatusCount(200));
+        assertEquals(0, socialMediaController.getRequestMetrics().getInFlight());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/metrics
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: request, pool, cache and JVM metrics in the Prometheus text format
+     */
+    @Test
+    public void metricsEndpoint() throws IOException, InterruptedException {
+        get("/messages/1");
+        get("/unknown");
+
+        HttpResponse<String> response = get("/metrics");
+        String body = response.body();
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        assertTrue(body.contains("# TYPE http_server_request_duration_seconds histogram\n"), body);
+        assertTrue(body.contains(
+                "http_server_request_duration_seconds_count{method=\"GET\",route=\"/messages/{id}\"} 1\n"), body);
+        assertTrue(body.contains(
+                "http_server_responses_total{method=\"GET\",route=\"/messages/{id}\",status=\"200\"} 1\n"), body);
+        assertTrue(body.contains(
+                "http_server_responses_total{method=\"GET\",route=\"unmatched\",status=\"404\"} 1\n"), body);
+        assertTrue(body.contains("http_server_requests_in_flight 1\n"), body);
+        assertTrue(body.contains("db_pool_connections{state=\"active\"}"), body);
+        assertTrue(body.contains("cache_requests_total{cache=\"accounts\",result=\"hit\"}"), body);
+        assertTrue(body.contains("executor_queue_depth{executor=\"jdbc\"} 0\n"), body);
+        assertTrue(body.contains("jvm_memory_used_bytes{area=\"heap\"}"), body);
+    }
+
+    /**
+     * Each metric is described once, buckets are cumulative, and label values are escaped.
+     */
+    @Test
+    public void prometheusFormat() {
+        Histogram histogram = new Histogram();
+        histogram.record(40_000);
+        histogram.record(70_000);
+
+        String text = new PrometheusWriter()
+                .counter("requests_total", "Requests.", 2, "path", "a\"b\\c")
+                .counter("requests_total", "Requests.", 3, "path", "d")
+                .histogram("latency_seconds", "Latency.", histogram)
+                .toString();
+
+        assertTrue(text.startsWith("# HELP requests_total Requests.\n# TYPE requests_total counter\n"
+                + "requests_total{path=\"a\\\"b\\\\c\"} 2\nrequests_total{path=\"d\"} 3\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"5.0E-5\"} 1\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"1.0E-4\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{le=\"+Inf\"} 2\n"), text);
+        assertTrue(text.contains("latency_seconds_sum 1.1E-4\n"), text);
+        assertTrue(text.endsWith("latency_seconds_count 2\n"), text);
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8080" + path)).build();
+        return webClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,82 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import security.PasswordHasher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHasherTest {
+
+    /**
+     * A hash verifies its own password only, and two hashes of one password differ by their salt.
+     */
+    @Test
+    public void hashVerifiesOnlyItsPassword() {
+        try (PasswordHasher hasher = new PasswordHasher(1_000, 1, 1)) {
+            String hash = hasher.hash("password");
+
+            assertTrue(hash.startsWith("pbkdf2_sha256$1000$"));
+            assertTrue(hasher.verify("password", hash));
+            assertFalse(hasher.verify("Password", hash));
+            assertNotEquals(hash, hasher.hash("password"));
+            assertFalse(hasher.needsRehash(hash));
+        }
+    }
+
+    /**
+     * Plaintext passwords still verify, and are flagged for rehashing.
+     */
+    @Test
+    public void legacyPlaintextVerifiesAndNeedsRehash() {
+        try (PasswordHasher hasher = new PasswordHasher(1_000, 1, 1)) {
+            assertTrue(hasher.verify("password", "password"));
+            assertFalse(hasher.verify("password", "pass"));
+            assertTrue(hasher.needsRehash("password"));
+        }
+    }
+
+    /**
+     * Hashes made with another work factor keep verifying, and are flagged for rehashing.
+     */
+    @Test
+    public void changedWorkFactorNeedsRehash() {
+        try (PasswordHasher oldHasher = new PasswordHasher(1_000, 1, 1);
+             PasswordHasher newHasher = new PasswordHasher(2_000, 1, 1)) {
+            String hash = oldHasher.hash("password");
+
+            assertTrue(newHasher.verify("password", hash));
+            assertTrue(newHasher.needsRehash(hash));
+        }
+    }
+
+    /**
+     * With the only thread busy and the queue full, further work is rejected instead of queued.
+     */
+    @Test
+    public void saturatedPoolRejectsWork() throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(1_000, 1, 1)) {
+            String slowHash;
+            try (PasswordHasher slowHasher = new PasswordHasher(500_000, 1, 1)) {
+                slowHash = slowHasher.hash("password");
+            }
+
+            CompletableFuture<Boolean> running = hasher.verifyAsync("password", slowHash);
+            CompletableFuture<Boolean> queued = hasher.verifyAsync("password", slowHash);
+            CompletableFuture<Boolean> rejected = hasher.verifyAsync("password", slowHash);
+
+            ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+            assertEquals(1, hasher.getRejected());
+            assertTrue(running.get());
+            assertTrue(queued.get());
+        }
+    }
+}
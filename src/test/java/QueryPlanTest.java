@@ -0,0 +1,232 @@
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import util.SchemaMigrator;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Guards against DAO queries silently degrading to table scans as data grows.
+ * <p>
+ * Every {@code static final String *_QUERY} constant declared by a class in {@code dao.impl} is explained against a
+ * migrated database seeded with a realistic number of rows. The build fails if a statement that is not explicitly
+ * allowed to scan reads a table without an index, or if a page query ({@code ORDER BY ... LIMIT}) does not read its
+ * rows in the order of its expected index, and the failure message shows the plan.
+ */
+public class QueryPlanTest {
+
+    private static final String DAO_PACKAGE = "dao.impl";
+    private static final int ACCOUNTS = 2_000;
+    private static final int MESSAGES_PER_ACCOUNT = 25;
+
+    /**
+     * Statements that read a whole table on purpose; every other statement must use an index.
+     */
+    private static final Set<String> FULL_SCAN_ALLOWED = Set.of(
+            "AccountDaoImpl.FIND_ALL_QUERY",
+            "AccountDaoImpl.FIND_ALL_KEYS_QUERY",
+            "MessageDaoImpl.FIND_ALL_QUERY");
+
+    /**
+     * The index each page query must read in order, by name prefix; H2 names primary key indexes itself.
+     */
+    private static final Map<String, String> PAGE_QUERY_INDEXES = Map.of(
+            "MessageDaoImpl.FIND_PAGE_QUERY", "PUBLIC.PRIMARY_KEY_",
+            "MessageDaoImpl.FIND_PAGE_BY_POSTED_ID_QUERY", "PUBLIC.IDX_MESSAGE_POSTED_BY_TIME");
+    private static final String INDEX_SORTED = "/* index sorted */";
+
+    /**
+     * {@code SELECT * FROM OLD|NEW|FINAL TABLE (<dml>)} reads the change set, so the plan that matters is the DML's.
+     */
+    private static final Pattern DELTA_TABLE = Pattern.compile(
+            "^SELECT .* FROM (?:OLD|NEW|FINAL) TABLE \\((.*)\\)\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern PAGE_QUERY = Pattern.compile("\\bORDER BY\\b.*\\bLIMIT\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(SELECT|UPDATE|DELETE)\\b", Pattern.CASE_INSENSITIVE);
+
+    static Connection connection;
+
+    /**
+     * Before all tests, migrate a private in-memory database and seed it with accounts and messages.
+     */
+    @BeforeAll
+    public static void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:query-plan;DB_CLOSE_DELAY=-1");
+        SchemaMigrator.migrate(connection);
+        seed();
+    }
+
+    @AfterAll
+    public static void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    /**
+     * Every DAO statement on a hot path is resolved through an index.
+     */
+    @Test
+    public void daoQueriesUseIndexes() throws Exception {
+        Map<String, String> queries = collectDaoQueries();
+        assertFalse(queries.isEmpty(), "No *_QUERY constants found in " + DAO_PACKAGE);
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            if (FULL_SCAN_ALLOWED.contains(query.getKey()) || !EXPLAINABLE.matcher(query.getValue()).find()) {
+                continue;
+            }
+            String plan = explain(unwrapDeltaTable(query.getValue()));
+            if (plan.contains("tableScan") || plan.contains("table scan")) {
+                failures.add(query.getKey() + " does not use an index:\n" + query.getValue() + "\n" + plan);
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail(String.join("\n\n", failures));
+        }
+    }
+
+    /**
+     * Every page query seeks on its expected index and reads the page in index order, instead of sorting every row
+     * that matches its WHERE clause.
+     */
+    @Test
+    public void pageQueriesReadInIndexOrder() throws Exception {
+        Map<String, String> queries = collectDaoQueries();
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, String> query : queries.entrySet()) {
+            if (!PAGE_QUERY.matcher(query.getValue()).find()) {
+                continue;
+            }
+            String index = PAGE_QUERY_INDEXES.get(query.getKey());
+            if (index == null) {
+                failures.add(query.getKey() + " pages with ORDER BY ... LIMIT but has no expected index in "
+                        + "PAGE_QUERY_INDEXES:\n" + query.getValue());
+                continue;
+            }
+            String plan = explain(query.getValue());
+            if (!plan.contains("/* " + index) || !plan.contains(INDEX_SORTED)) {
+                failures.add(query.getKey() + " is not read in the order of " + index + ":\n" + query.getValue()
+                        + "\n" + plan);
+            }
+        }
+        for (String expected : PAGE_QUERY_INDEXES.keySet()) {
+            if (!queries.containsKey(expected)) {
+                failures.add(expected + " is listed in PAGE_QUERY_INDEXES but no longer exists");
+            }
+        }
+        if (!failures.isEmpty()) {
+            fail(String.join("\n\n", failures));
+        }
+    }
+
+    /**
+     * The harness recognises a page query that uses an index for its WHERE clause but sorts every match.
+     */
+    @Test
+    public void sortedPageIsDetected() throws SQLException {
+        String plan = explain("SELECT * FROM message WHERE posted_by = ? "
+                + "AND (time_posted_epoch > ? OR (time_posted_epoch = ? AND message_id > ?)) "
+                + "ORDER BY time_posted_epoch, message_id LIMIT ?");
+        assertFalse(plan.contains("tableScan"), plan);
+        assertFalse(plan.contains(INDEX_SORTED), plan);
+    }
+
+    /**
+     * The harness itself recognises a table scan, so a passing run is meaningful.
+     */
+    @Test
+    public void tableScanIsDetected() throws SQLException {
+        String plan = explain("SELECT * FROM message WHERE message_text = ?");
+        assertTrue(plan.contains("tableScan"), plan);
+    }
+
+    private static Map<String, String> collectDaoQueries() throws URISyntaxException, ClassNotFoundException,
+            IllegalAccessException {
+        URL packageUrl = QueryPlanTest.class.getClassLoader().getResource(DAO_PACKAGE.replace('.', '/'));
+        assertTrue(packageUrl != null && "file".equals(packageUrl.getProtocol()),
+                "Cannot list classes of " + DAO_PACKAGE + " from " + packageUrl);
+        File[] classFiles = new File(packageUrl.toURI()).listFiles((dir, name) -> name.endsWith(".class"));
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (File classFile : classFiles) {
+            String className = classFile.getName().replace(".class", "");
+            Class<?> daoClass = Class.forName(DAO_PACKAGE + "." + className);
+            for (Field field : daoClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)
+                        && field.getType() == String.class && field.getName().endsWith("_QUERY")) {
+                    field.setAccessible(true);
+                    queries.put(daoClass.getSimpleName() + "." + field.getName(), (String) field.get(null));
+                }
+            }
+        }
+        return queries;
+    }
+
+    private static String unwrapDeltaTable(String sql) {
+        Matcher matcher = DELTA_TABLE.matcher(sql);
+        return matcher.matches() ? matcher.group(1) : sql;
+    }
+
+    private static String explain(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("EXPLAIN " + sql)) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    private static void seed() throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement accounts = connection.prepareStatement(
+                "INSERT INTO account (username, password) VALUES (?, ?)");
+             PreparedStatement messages = connection.prepareStatement(
+                     "INSERT INTO message (posted_by, message_text, time_posted_epoch) VALUES (?, ?, ?)")) {
+            for (int account = 1; account <= ACCOUNTS; account++) {
+                accounts.setString(1, "user" + account);
+                accounts.setString(2, "password" + account);
+                accounts.addBatch();
+            }
+            accounts.executeBatch();
+            for (int account = 1; account <= ACCOUNTS; account++) {
+                for (int i = 0; i < MESSAGES_PER_ACCOUNT; i++) {
+                    messages.setInt(1, account);
+                    messages.setString(2, "message " + i + " of user " + account);
+                    messages.setLong(3, 1669947792L + (long) i * ACCOUNTS + account);
+                    messages.addBatch();
+                }
+                messages.executeBatch();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import compression.CompressingOutputStream;
+import compression.CompressionMetrics;
+import compression.ContentEncoding;
+import compression.DeflaterPool;
+import controller.SocialMediaController;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseCompressionTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, add enough messages for the list to pass the compression threshold,
+     * restart the Javalin app, and create a new webClient for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, SQLException {
+        ConnectionUtil.resetTestDatabase();
+        insertMessages(100);
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages with Accept-Encoding: gzip
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Content-Encoding: gzip, and the body decompresses to the uncompressed list
+     */
+    @Test
+    public void getAllMessagesGzip() throws IOException, InterruptedException {
+        byte[] plain = get("http://localhost:8080/messages", null).body();
+        HttpResponse<byte[]> response = get("http://localhost:8080/messages", "gzip, deflate");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.body().length < plain.length / 3, "Compressed to " + response.body().length);
+        assertArrayEquals(plain, new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/1/messages with Accept-Encoding: deflate
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Content-Encoding: deflate, and the body inflates to the uncompressed list
+     */
+    @Test
+    public void getAccountMessagesDeflate() throws IOException, InterruptedException {
+        byte[] plain = get("http://localhost:8080/accounts/1/messages", null).body();
+        HttpResponse<byte[]> response = get("http://localhost:8080/accounts/1/messages", "deflate, gzip;q=0");
+
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertArrayEquals(plain, new InflaterInputStream(new ByteArrayInputStream(response.body())).readAllBytes());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?limit=2 with Accept-Encoding: gzip
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * A small page is sent uncompressed
+     */
+    @Test
+    public void smallResponseIsNotCompressed() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = get("http://localhost:8080/messages?limit=2", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(new String(response.body(), StandardCharsets.UTF_8).startsWith("{\"items\":["));
+        assertEquals(1, socialMediaController.getResponseCompression().getMetrics().getUncompressedResponses());
+    }
+
+    /**
+     * Compressed responses reuse the pooled deflater and are counted in the metrics.
+     */
+    @Test
+    public void deflatersAreReused() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            get("http://localhost:8080/messages", "gzip");
+        }
+        DeflaterPool deflaters = socialMediaController.getResponseCompression().getGzipDeflaters();
+        CompressionMetrics metrics = socialMediaController.getResponseCompression().getMetrics();
+
+        assertEquals(1, deflaters.getCreated());
+        assertEquals(2, deflaters.getReused());
+        assertEquals(3, metrics.getCompressedResponses());
+        assertTrue(metrics.getBytesOut() < metrics.getBytesIn());
+    }
+
+    /**
+     * The preferred acceptable encoding is chosen, honouring q=0 and wildcards.
+     */
+    @Test
+    public void negotiateEncoding() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("deflate, gzip"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0, *"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("br, *;q=0.1"));
+        assertNull(ContentEncoding.negotiate("identity"));
+        assertNull(ContentEncoding.negotiate(null));
+    }
+
+    /**
+     * A body written byte by byte right at the threshold stays uncompressed; one byte more is gzip encoded.
+     */
+    @Test
+    public void thresholdDecidesCompression() throws IOException {
+        DeflaterPool pool = new DeflaterPool(6, true, 1);
+        byte[] body = "x".repeat(101).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        CompressingOutputStream smallStream = compress(small, pool);
+        smallStream.write(body, 0, 100);
+        smallStream.close();
+        assertFalse(smallStream.isCompressing());
+        assertEquals(100, small.size());
+
+        ByteArrayOutputStream large = new ByteArrayOutputStream();
+        try (CompressingOutputStream largeStream = compress(large, pool)) {
+            for (byte b : body) {
+                largeStream.write(b);
+            }
+        }
+        try (InputStream inflated = new GZIPInputStream(new ByteArrayInputStream(large.toByteArray()))) {
+            assertArrayEquals(body, inflated.readAllBytes());
+        }
+    }
+
+    private static CompressingOutputStream compress(ByteArrayOutputStream target, DeflaterPool pool) {
+        return new CompressingOutputStream(target, ContentEncoding.GZIP, 100, pool, () -> { }, new CompressionMetrics());
+    }
+
+    private HttpResponse<byte[]> get(String uri, String acceptEncoding) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder().uri(URI.create(uri));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return webClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static void insertMessages(int count) throws SQLException {
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement message = connection.prepareStatement(
+                     "INSERT INTO message (posted_by, message_text, time_posted_epoch) VALUES (1, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                message.setString(1, "compressible message " + i);
+                message.setLong(2, 1669947800L + i);
+                message.addBatch();
+            }
+            message.executeBatch();
+        }
+    }
+}
@@ -8,11 +8,15 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import controller.SocialMediaController;
+import dao.impl.MessageDaoImpl;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
 import model.Message;
 import util.ConnectionUtil;
 import io.javalin.Javalin;
@@ -21,6 +25,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class RetrieveAllMessagesTest {
@@ -99,6 +104,48 @@ public class RetrieveAllMessagesTest {
         assertTrue(messages.isEmpty());
     }
 
+    /**
+     * Sending an http request to GET localhost:8080/messages accepting application/x-ndjson
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: one JSON message per line
+     */
+    @Test
+    public void getAllMessagesAsNdjson() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages"))
+                .header("Accept", "application/x-ndjson")
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        int status = response.statusCode();
+
+        assertEquals(200, status);
+        assertEquals("application/x-ndjson", response.headers().firstValue("Content-Type").orElse(""));
+
+        String[] lines = response.body().split("\n");
+        assertEquals(1, lines.length);
+        Message expectedResult = new Message(1, 1, "test message 1", 1669947792);
+        assertEquals(expectedResult, objectMapper.readValue(lines[0], Message.class));
+    }
+
+    /**
+     * A connection borrowed after a stream was closed, even before it was read to the end, does not run in H2's lazy
+     * query mode.
+     */
+    @Test
+    public void streamingLeavesLazyModeOff() throws SQLException {
+        MessageDaoImpl messageDao = new MessageDaoImpl();
+        try (Stream<Message> messages = messageDao.streamAll()) {
+            assertEquals(1, messages.count());
+        }
+        messageDao.streamAll().close();
+
+        try (Connection connection = ConnectionUtil.getConnection()) {
+            SessionLocal session = (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+            assertFalse(session.isLazyQueryExecution());
+        }
+    }
 
     private void removeInitialMessage() {
         try {
@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import controller.SocialMediaController;
+import model.Message;
+import model.Page;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RetrieveMessagesPageTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, add four more messages, restart the Javalin app, and create a new
+     * webClient and ObjectMapper for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, SQLException {
+        ConnectionUtil.resetTestDatabase();
+        insertMessages();
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/messages?limit=2, following next_cursor until it is null
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: pages of at most two messages which together hold every message, ordered by message_id
+     */
+    @Test
+    public void getAllMessagesPageByPage() throws IOException, InterruptedException {
+        List<Message> actualResult = readAllPages("http://localhost:8080/messages?limit=2");
+
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(1, 1, "test message 1", 1669947792));
+        expectedResult.add(new Message(2, 1, "test message 2", 1669947700));
+        expectedResult.add(new Message(3, 2, "test message 3", 1669947800));
+        expectedResult.add(new Message(4, 1, "test message 4", 1669947900));
+        expectedResult.add(new Message(5, 1, "test message 5", 1669947700));
+        assertEquals(expectedResult, actualResult);
+    }
+
+    /**
+     * Sending http requests to GET localhost:8080/accounts/1/messages?limit=3, following next_cursor
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: pages holding the account's messages ordered by time_posted_epoch, then message_id
+     */
+    @Test
+    public void getAllMessagesForUserPageByPage() throws IOException, InterruptedException {
+        List<Message> actualResult = readAllPages("http://localhost:8080/accounts/1/messages?limit=3");
+
+        List<Message> expectedResult = new ArrayList<>();
+        expectedResult.add(new Message(2, 1, "test message 2", 1669947700));
+        expectedResult.add(new Message(5, 1, "test message 5", 1669947700));
+        expectedResult.add(new Message(1, 1, "test message 1", 1669947792));
+        expectedResult.add(new Message(4, 1, "test message 4", 1669947900));
+        assertEquals(expectedResult, actualResult);
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?limit=1000
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: a single page, as the limit is capped and every message fits in it
+     */
+    @Test
+    public void getAllMessagesLimitIsCapped() throws IOException, InterruptedException {
+        Page<Message> page = readPage("http://localhost:8080/messages?limit=1000");
+
+        assertEquals(5, page.getItems().size());
+        assertNull(page.getNext_cursor());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?after=garbage
+     * <p>
+     * Expected Response:
+     * Status Code: 400
+     */
+    @Test
+    public void getAllMessagesInvalidCursor() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/messages?after=garbage"))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(400, response.statusCode());
+    }
+
+    private List<Message> readAllPages(String firstPageUrl) throws IOException, InterruptedException {
+        List<Message> messages = new ArrayList<>();
+        Page<Message> page = readPage(firstPageUrl);
+        messages.addAll(page.getItems());
+        while (page.getNext_cursor() != null) {
+            page = readPage(firstPageUrl + "&after=" + page.getNext_cursor());
+            assertNotNull(page.getItems());
+            messages.addAll(page.getItems());
+        }
+        return messages;
+    }
+
+    private Page<Message> readPage(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), new TypeReference<>() {
+        });
+    }
+
+    private void insertMessages() throws SQLException {
+        try (Connection connection = ConnectionUtil.getConnection()) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO account (username, password) VALUES ('testuser2', 'password')")) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO message (posted_by, message_text, time_posted_epoch) VALUES (?, ?, ?)")) {
+                Object[][] rows = {
+                        {1, "test message 2", 1669947700L},
+                        {2, "test message 3", 1669947800L},
+                        {1, "test message 4", 1669947900L},
+                        {1, "test message 5", 1669947700L}};
+                for (Object[] row : rows) {
+                    ps.setInt(1, (Integer) row[0]);
+                    ps.setString(2, (String) row[1]);
+                    ps.setLong(3, (Long) row[2]);
+                    ps.executeUpdate();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import controller.SocialMediaController;
+import dao.impl.AccountDaoImpl;
+import model.Account;
+import util.ConnectionUtil;
+import io.javalin.Javalin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RetrieveMessagesWithAuthorTest {
+    SocialMediaController socialMediaController;
+    HttpClient webClient;
+    ObjectMapper objectMapper;
+    Javalin app;
+
+    /**
+     * Before every test, reset the database, add a second account with a message, restart the Javalin app, and
+     * create a new webClient and ObjectMapper for interacting locally on the web.
+     */
+    @BeforeEach
+    public void setUp() throws InterruptedException, SQLException {
+        ConnectionUtil.resetTestDatabase();
+        insertSecondAuthor();
+        socialMediaController = new SocialMediaController();
+        app = socialMediaController.startAPI();
+        webClient = HttpClient.newHttpClient();
+        objectMapper = new ObjectMapper();
+        app.start(8080);
+        Thread.sleep(1000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        app.stop();
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?expand=author
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: JSON list of all messages, each with an author holding account_id and username only
+     */
+    @Test
+    public void getAllMessagesWithAuthor() throws IOException, InterruptedException {
+        JsonNode messages = get("http://localhost:8080/messages?expand=author");
+
+        assertEquals(2, messages.size());
+        assertAuthor(messages.get(0), 1, "testuser1");
+        assertAuthor(messages.get(1), 2, "testuser2");
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages?limit=1&expand=author
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: a page holding the first message with its author, and a next_cursor
+     */
+    @Test
+    public void getMessagesPageWithAuthor() throws IOException, InterruptedException {
+        JsonNode page = get("http://localhost:8080/messages?limit=1&expand=author");
+
+        assertEquals(1, page.get("items").size());
+        assertAuthor(page.get("items").get(0), 1, "testuser1");
+        assertFalse(page.get("next_cursor").isNull());
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/accounts/2/messages?expand=author
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: JSON list of the account's messages with their author
+     */
+    @Test
+    public void getAccountMessagesWithAuthor() throws IOException, InterruptedException {
+        JsonNode messages = get("http://localhost:8080/accounts/2/messages?expand=author");
+
+        assertEquals(1, messages.size());
+        assertAuthor(messages.get(0), 2, "testuser2");
+    }
+
+    /**
+     * Sending an http request to GET localhost:8080/messages without expand
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Body: JSON list of all messages without authors
+     */
+    @Test
+    public void getAllMessagesWithoutExpand() throws IOException, InterruptedException {
+        JsonNode messages = get("http://localhost:8080/messages");
+
+        assertEquals(2, messages.size());
+        assertNull(messages.get(0).get("author"));
+    }
+
+    /**
+     * Ids spanning several lookup batches, with duplicates and unknown ids, find each existing account once,
+     * without its password.
+     */
+    @Test
+    public void findByIdsReturnsExistingAccountsOnce() {
+        AccountDaoImpl accountDao = new AccountDaoImpl();
+        accountDao.setLookupBatchSize(1);
+
+        List<Account> accounts = accountDao.findByIds(List.of(2, 1, 2, 99));
+
+        assertEquals(List.of(1, 2), accounts.stream().map(Account::getAccount_id).sorted().collect(Collectors.toList()));
+        accounts.forEach(account -> assertNull(account.getPassword()));
+    }
+
+    private JsonNode get(String uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create(uri)).build();
+        HttpResponse<String> response = webClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void assertAuthor(JsonNode message, int accountId, String username) {
+        JsonNode author = message.get("author");
+        assertEquals(accountId, message.get("posted_by").asInt());
+        assertEquals(accountId, author.get("account_id").asInt());
+        assertEquals(username, author.get("username").asText());
+        assertNull(author.get("password"));
+    }
+
+    private static void insertSecondAuthor() throws SQLException {
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement account = connection.prepareStatement(
+                     "INSERT INTO account (username, password) VALUES ('testuser2', 'password')");
+             PreparedStatement message = connection.prepareStatement(
+                     "INSERT INTO message (posted_by, message_text, time_posted_epoch) VALUES (2, 'test message 2', 1669947800)")) {
+            account.executeUpdate();
+            message.executeUpdate();
+        }
+    }
+}
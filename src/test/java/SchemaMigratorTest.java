@@ -0,0 +1,71 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import util.SchemaMigrator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaMigratorTest {
+    Connection connection;
+
+    /**
+     * Before every test, open a connection to an empty in-memory database.
+     */
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:migrator-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Migrating an empty database applies every script once and records each version.
+     */
+    @Test
+    public void migrateEmptyDatabase() throws SQLException {
+        assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.migrate(connection));
+
+        assertEquals(SchemaMigrator.latestVersion(), SchemaMigrator.currentVersion(connection));
+        assertEquals(SchemaMigrator.latestVersion(), count("SELECT COUNT(*) FROM schema_version"));
+        assertTrue(count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME = 'IDX_MESSAGE_POSTED_BY_TIME'") > 0);
+        assertEquals(0, count("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE INDEX_NAME = 'IDX_MESSAGE_TIME'"));
+    }
+
+    /**
+     * Migrating an up-to-date database, as on every restart, runs no script again.
+     */
+    @Test
+    public void migrateCurrentDatabaseIsNoOp() throws SQLException {
+        SchemaMigrator.migrate(connection);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO account (username, password) VALUES ('user', 'password')")) {
+            ps.executeUpdate();
+        }
+
+        SchemaMigrator.migrate(connection);
+
+        assertEquals(SchemaMigrator.latestVersion(), count("SELECT COUNT(*) FROM schema_version"));
+        assertEquals(1, count("SELECT COUNT(*) FROM account"));
+    }
+
+    private int count(String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet resultSet = ps.executeQuery()) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import security.HmacTokenStore;
+import security.InMemoryTokenStore;
+import security.TokenStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TokenStoreTest {
+
+    /**
+     * An issued opaque token resolves to its account until it is revoked.
+     */
+    @Test
+    public void opaqueTokenResolvesUntilRevoked() {
+        TokenStore store = new InMemoryTokenStore(10, 60_000);
+        String token = store.issue(7);
+
+        assertNotEquals(token, store.issue(7));
+        assertEquals(7, store.resolve(token));
+        assertNull(store.resolve("unknown"));
+        assertNull(store.resolve(null));
+
+        store.revoke(token);
+        assertNull(store.resolve(token));
+    }
+
+    /**
+     * An opaque token stops resolving once its time to live has passed.
+     */
+    @Test
+    public void opaqueTokenExpires() throws InterruptedException {
+        TokenStore store = new InMemoryTokenStore(10, 20);
+        String token = store.issue(7);
+        Thread.sleep(50);
+        assertNull(store.resolve(token));
+    }
+
+    /**
+     * A signed token resolves on any store sharing the secret, and not on one with another secret.
+     */
+    @Test
+    public void hmacTokenResolvesWithSameSecretOnly() {
+        byte[] secret = Base64.getDecoder().decode("c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LTEyMzQ=");
+        String token = new HmacTokenStore(secret, 60_000).issue(42);
+
+        assertEquals(42, new HmacTokenStore(secret, 60_000).resolve(token));
+        assertNull(new HmacTokenStore("other".getBytes(), 60_000).resolve(token));
+    }
+
+    /**
+     * Changing the account id or expiry of a signed token invalidates its signature.
+     */
+    @Test
+    public void tamperedHmacTokenIsRejected() {
+        TokenStore store = new HmacTokenStore("secret".getBytes(), 60_000);
+        String token = store.issue(42);
+        String[] parts = token.split("\\.");
+
+        assertNull(store.resolve("1." + parts[1] + "." + parts[2]));
+        assertNull(store.resolve(parts[0] + "." + (Long.parseLong(parts[1]) + 1) + "." + parts[2]));
+        assertNull(store.resolve("garbage"));
+        assertNull(store.resolve(".."));
+    }
+
+    /**
+     * A signed token stops resolving once its expiry has passed.
+     */
+    @Test
+    public void hmacTokenExpires() {
+        TokenStore store = new HmacTokenStore("secret".getBytes(), -1);
+        assertNull(store.resolve(store.issue(42)));
+    }
+}
@@ -3,6 +3,10 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -15,6 +19,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class UserLoginTest {
 
@@ -117,4 +123,59 @@ public class UserLoginTest {
         assertEquals("", response.body());
     }
 
+    /**
+     * Sending an http request to POST localhost:8080/login with valid username and password
+     * <p>
+     * Expected Response:
+     * Status Code: 200
+     * Response Headers: X-Auth-Token with a session token for the account
+     */
+    @Test
+    public void loginIssuesToken() throws IOException, InterruptedException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"username\": \"testuser1\", " +
+                        "\"password\": \"password\" }"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<String> response = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertFalse(response.headers().firstValue("X-Auth-Token").orElse("").isBlank());
+    }
+
+    /**
+     * Sending two http requests to POST localhost:8080/login with the seeded account, whose password is stored in
+     * plaintext
+     * <p>
+     * Expected Response:
+     * Status Code: 200 for both requests, and the stored password is replaced by a salted hash after the first one
+     */
+    @Test
+    public void loginRehashesPlaintextPassword() throws IOException, InterruptedException, SQLException {
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"username\": \"testuser1\", " +
+                        "\"password\": \"password\" }"))
+                .header("Content-Type", "application/json")
+                .build();
+        assertEquals(200, webClient.send(postRequest, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertTrue(storedPassword("testuser1").startsWith("pbkdf2_sha256$"));
+
+        HttpResponse<String> response = webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(new Account(1, "testuser1", "password"), objectMapper.readValue(response.body(), Account.class));
+    }
+
+    private static String storedPassword(String username) throws SQLException {
+        try (Connection connection = ConnectionUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT password FROM account WHERE username = ?")) {
+            statement.setString(1, username);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
 }
@@ -3,6 +3,13 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -142,4 +149,46 @@ public class UserRegistrationTest {
         assertEquals("", response.body());
     }
 
+    /**
+     * Sending many concurrent http requests to POST localhost:8080/register with the same new username
+     * <p>
+     * Expected Response:
+     * Status Code: 200 for exactly one request, 400 with an empty body for all others
+     */
+    @Test
+    public void registerSameUsernameConcurrently() throws Exception {
+        int requests = 16;
+        HttpRequest postRequest = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/register"))
+                .POST(HttpRequest.BodyPublishers.ofString("{" +
+                        "\"username\": \"racer\", " +
+                        "\"password\": \"password\" }"))
+                .header("Content-Type", "application/json")
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return webClient.send(postRequest, HttpResponse.BodyHandlers.ofString());
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<HttpResponse<String>> future : responses) {
+                HttpResponse<String> response = future.get(30, TimeUnit.SECONDS);
+                if (response.statusCode() == 200) {
+                    created++;
+                } else {
+                    assertEquals(400, response.statusCode());
+                    assertEquals("", response.body());
+                }
+            }
+            assertEquals(1, created);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
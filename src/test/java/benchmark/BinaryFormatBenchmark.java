@@ -0,0 +1,89 @@
+package benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import json.JacksonJsonMapper;
+import model.Message;
+import wire.BinaryDecoder;
+import wire.BinaryEncoder;
+
+/**
+ * Compares the binary format with JSON on a list of messages: payload size, and time to encode and decode the list.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<dependencies> benchmark.BinaryFormatBenchmark
+ * [messages] [iterations]}.
+ */
+public class BinaryFormatBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message(i + 1, i % 50 + 1, "benchmark message number " + i, 1669947792L + i));
+        }
+        JacksonJsonMapper jsonMapper = new JacksonJsonMapper();
+        byte[] json = encodeJson(jsonMapper, messages);
+        byte[] binary = encodeBinary(messages);
+
+        System.out.printf("%d messages: json %d bytes, binary %d bytes (%.0f%%)%n", count, json.length, binary.length,
+                100.0 * binary.length / json.length);
+        System.out.printf("%-8s %-8s %14s%n", "format", "step", "us/list");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            measure(report, "json", "encode", iterations, () -> encodeJson(jsonMapper, messages));
+            measure(report, "binary", "encode", iterations, () -> encodeBinary(messages));
+            measure(report, "json", "decode", iterations,
+                    () -> jsonMapper.<Message[]>fromJsonStream(new ByteArrayInputStream(json), Message[].class));
+            measure(report, "binary", "decode", iterations, () -> decodeBinary(binary));
+        }
+    }
+
+    private static byte[] encodeJson(JacksonJsonMapper jsonMapper, List<Message> messages) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        jsonMapper.writeToOutputStream(messages.stream(), output);
+        return output.toByteArray();
+    }
+
+    private static byte[] encodeBinary(List<Message> messages) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinaryEncoder encoder = new BinaryEncoder(output);
+        try {
+            for (Message message : messages) {
+                encoder.write(message);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static List<Message> decodeBinary(byte[] binary) {
+        try {
+            return new BinaryDecoder(new ByteArrayInputStream(binary)).readMessages();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void measure(boolean report, String format, String step, int iterations, Supplier<?> task) {
+        Object sink = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (report) {
+            System.out.printf("%-8s %-8s %14.1f%n", format, step, elapsed / 1_000.0 / iterations);
+        }
+        if (sink == null) {
+            throw new IllegalStateException("No result");
+        }
+    }
+}
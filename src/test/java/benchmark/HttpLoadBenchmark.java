@@ -0,0 +1,128 @@
+package benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import app.ApplicationContext;
+import metrics.Histogram;
+import model.Message;
+import service.MessageService;
+import util.ConnectionUtil;
+
+/**
+ * Compares throughput and latency of the read endpoints with handlers on Jetty's platform thread pool and on
+ * virtual threads.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<dependencies> benchmark.HttpLoadBenchmark [clients]
+ * [seconds]} on Java 21 or newer for the virtual thread mode to take effect. Each mode resets the test database,
+ * seeds it, starts the application on port 8080, and drives it with closed-loop clients that send a mix of list,
+ * page and single-message requests. The benchmark wipes the database at {@code ./h2/db}, as the tests do.
+ */
+public class HttpLoadBenchmark {
+
+    private static final int ACCOUNTS = 1;
+    private static final int MESSAGES = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        System.out.printf("%d clients, %d s per mode, Java %s%n", clients, seconds, Runtime.version());
+        System.out.printf("%10s %12s %10s %10s %10s %10s%n", "mode", "requests/s", "p50 ms", "p99 ms", "errors",
+                "pool wait");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            System.setProperty("server.virtualThreads", Boolean.toString(virtualThreads));
+            run(virtualThreads ? "virtual" : "platform", clients, seconds);
+        }
+        System.exit(0);
+    }
+
+    private static void run(String mode, int clients, int seconds) throws Exception {
+        ConnectionUtil.resetTestDatabase();
+        seed();
+        ApplicationContext context = new ApplicationContext();
+        context.start(8080);
+        try {
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(16)).build();
+            Histogram latency = new Histogram();
+            LongAdder errors = new LongAdder();
+            long acquireCountBefore = ConnectionUtil.getPoolStats().getAcquireTime().count();
+            long acquireNanosBefore = ConnectionUtil.getPoolStats().getAcquireTime().sumNanos();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService callers = Executors.newFixedThreadPool(clients);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(callers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = nextRequest();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                latency.record(System.nanoTime() - start);
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            callers.shutdown();
+
+            long acquires = ConnectionUtil.getPoolStats().getAcquireTime().count() - acquireCountBefore;
+            long acquireNanos = ConnectionUtil.getPoolStats().getAcquireTime().sumNanos() - acquireNanosBefore;
+            System.out.printf("%10s %12.1f %10.2f %10.2f %10d %8.2fms%n",
+                    mode,
+                    latency.count() / (double) seconds,
+                    latency.percentileNanos(50) / 1e6,
+                    latency.percentileNanos(99) / 1e6,
+                    errors.sum(),
+                    acquires == 0 ? 0.0 : acquireNanos / 1e6 / acquires);
+        } finally {
+            context.stop();
+        }
+    }
+
+    private static HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path;
+        switch (random.nextInt(3)) {
+            case 0:
+                path = "/messages?limit=" + MessageService.DEFAULT_PAGE_SIZE;
+                break;
+            case 1:
+                path = "/messages/" + (1 + random.nextInt(MESSAGES));
+                break;
+            default:
+                path = "/accounts/" + (1 + random.nextInt(ACCOUNTS)) + "/messages?limit="
+                        + MessageService.DEFAULT_PAGE_SIZE;
+                break;
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:8080" + path)).build();
+    }
+
+    private static void seed() {
+        List<Message> messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            messages.add(new Message(1, "benchmark message " + i, 1669947792L + i));
+        }
+        new MessageService().createAll(messages);
+    }
+}
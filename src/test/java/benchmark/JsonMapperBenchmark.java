@@ -0,0 +1,72 @@
+package benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import json.JacksonJsonMapper;
+import model.Account;
+import model.Message;
+
+/**
+ * Compares Javalin's default Jackson mapper with {@link JacksonJsonMapper} on the operations the handlers perform:
+ * writing a list of messages, writing one message, and reading one message and one account from a request body.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes:<dependencies> benchmark.JsonMapperBenchmark
+ * [iterations]}. Allocation is measured per thread with {@code com.sun.management.ThreadMXBean}.
+ */
+public class JsonMapperBenchmark {
+
+    private static final int LIST_SIZE = 100;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<Message> messages = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            messages.add(new Message(i + 1, i % 7 + 1, "benchmark message number " + i, 1669947792L + i));
+        }
+        Message message = messages.get(0);
+        String messageJson = "{\"posted_by\":1,\"message_text\":\"hello world\",\"time_posted_epoch\":1669947792}";
+        String accountJson = "{\"username\":\"testuser1\",\"password\":\"password\"}";
+
+        System.out.printf("%-10s %-18s %12s %14s%n", "mapper", "operation", "ns/op", "bytes/op");
+        for (int round = 0; round < 2; round++) {
+            boolean report = round == 1;
+            for (JsonMapper mapper : new JsonMapper[]{new JavalinJackson(), new JacksonJsonMapper()}) {
+                String name = mapper instanceof JavalinJackson ? "default" : "tuned";
+                measure(report, name, "write list", iterations / LIST_SIZE,
+                        () -> mapper.toJsonString(messages, messages.getClass()));
+                measure(report, name, "write message", iterations, () -> mapper.toJsonString(message, Message.class));
+                measure(report, name, "read message", iterations,
+                        () -> mapper.fromJsonString(messageJson, Message.class));
+                measure(report, name, "read account", iterations,
+                        () -> mapper.fromJsonString(accountJson, Account.class));
+            }
+        }
+    }
+
+    private static void measure(boolean report, String mapper, String operation, int iterations, Supplier<?> task) {
+        long threadId = Thread.currentThread().getId();
+        Object sink = null;
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (report) {
+            System.out.printf("%-10s %-18s %12.1f %14.1f%n", mapper, operation, elapsed / (double) iterations,
+                    allocated / (double) iterations);
+        }
+        if (sink == null) {
+            throw new IllegalStateException("No result");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import metrics.Histogram;
+import security.PasswordHasher;
+
+/**
+ * Measures how many password verifications per second, the CPU cost of a login, the hashing pool sustains at
+ * each PBKDF2 work factor, and the latency callers see.
+ * <p>
+ * Run with {@code java -cp target/classes:target/test-classes benchmark.LoginThroughputBenchmark [clients]
+ * [seconds] [iterations...]}. Clients loop on login attempts without pause, so with more clients than hashing
+ * threads the queue fills and the rejection count shows the load the pool turned away.
+ */
+public class LoginThroughputBenchmark {
+
+    private static final int[] DEFAULT_ITERATIONS = {10_000, 50_000, 100_000, 210_000, 600_000};
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4 * Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int[] iterationSettings = DEFAULT_ITERATIONS;
+        if (args.length > 2) {
+            iterationSettings = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                iterationSettings[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%d clients, %d s per setting, %d hashing threads%n",
+                clients, seconds, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%12s %12s %10s %10s %10s %10s%n",
+                "iterations", "logins/s", "p50 ms", "p99 ms", "rejected", "queue max");
+        for (int iterations : iterationSettings) {
+            run(iterations, clients, seconds);
+        }
+    }
+
+    private static void run(int iterations, int clients, int seconds) throws Exception {
+        try (PasswordHasher hasher = new PasswordHasher(iterations,
+                Runtime.getRuntime().availableProcessors(), Integer.getInteger("auth.hashing.queueSize", 64))) {
+            String stored = hasher.hash("password");
+            Histogram latency = new Histogram();
+            LongAdder logins = new LongAdder();
+            LongAdder rejected = new LongAdder();
+            AtomicLong maxQueueDepth = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            ExecutorService callers = Executors.newFixedThreadPool(clients);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(callers.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            if (hasher.verifyAsync("password", stored).join()) {
+                                logins.increment();
+                                latency.record(System.nanoTime() - start);
+                            }
+                        } catch (CompletionException e) {
+                            if (!(e.getCause() instanceof RejectedExecutionException)) {
+                                throw e;
+                            }
+                            rejected.increment();
+                            Thread.onSpinWait();
+                        }
+                        maxQueueDepth.accumulateAndGet(hasher.getQueueDepth(), Math::max);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            callers.shutdown();
+
+            System.out.printf("%12d %12.1f %10.1f %10.1f %10d %10d%n",
+                    iterations,
+                    logins.sum() / (double) seconds,
+                    latency.percentileNanos(50) / 1e6,
+                    latency.percentileNanos(99) / 1e6,
+                    rejected.sum(),
+                    maxQueueDepth.get());
+        }
+    }
+}